@@ -0,0 +1,27 @@
+package com.example.library.availability;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.availability")
+public class AvailabilityProperties {
+
+    private boolean enabled;
+
+    private int horizonDays = 365;
+
+    private Calendar calendar = new Calendar();
+
+    @Getter
+    @Setter
+    public static class Calendar {
+
+        private int maxEntries = 10_000;
+
+        private int maxDays = 366;
+
+    }
+}
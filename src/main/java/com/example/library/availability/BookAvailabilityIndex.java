@@ -0,0 +1,174 @@
+package com.example.library.availability;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.BookAvailabilityChangedEvent;
+import com.example.library.rental.RentalRepository;
+import com.example.library.rental.model.RentalBookedEvent;
+import com.example.library.rental.model.RentalPeriod;
+import com.example.library.rental.model.RentalReturnedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// One bitmap of bookable (not blocked) books plus one bitmap of booked books per day, from origin over
+// horizonDays. Books free for a range are bookable AND NOT (booked[from] OR ... OR booked[to]).
+// Updates arrive after commit and are idempotent, so replaying one that a reload already saw is harmless.
+@RequiredArgsConstructor
+@Component
+public class BookAvailabilityIndex {
+
+    private final BookRepository bookRepository;
+
+    private final RentalRepository rentalRepository;
+
+    private final AvailabilityProperties availabilityProperties;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private RoaringBitmap bookable = new RoaringBitmap();
+
+    private RoaringBitmap[] booked = new RoaringBitmap[0];
+
+    private LocalDate origin = LocalDate.MIN;
+
+    public boolean isEnabled() {
+        return availabilityProperties.isEnabled();
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!isEnabled()) {
+            return;
+        }
+        reload();
+    }
+
+    @Scheduled(cron = "${library.availability.roll-cron:0 5 0 * * *}")
+    public void roll() {
+        if (isEnabled() && !LocalDate.now().equals(origin)) {
+            reload();
+        }
+    }
+
+    // Holds the write lock while reading so that events committed meanwhile are applied on top of the new state.
+    public void reload() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        lock.writeLock().lock();
+        try {
+            origin = LocalDate.now();
+            bookable = new RoaringBitmap();
+            booked = new RoaringBitmap[availabilityProperties.getHorizonDays()];
+            Arrays.setAll(booked, day -> new RoaringBitmap());
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Long> ids = bookRepository.streamAvailableIds()) {
+                    ids.forEach(id -> bookable.add(toIndex(id)));
+                }
+                try (Stream<RentalPeriod> periods = rentalRepository.streamActivePeriods()) {
+                    periods.forEach(period -> mark(period, true));
+                }
+            });
+            bookable.runOptimize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean covers(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return !from.isBefore(origin) && dayOf(to) < booked.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> findAvailable(LocalDate from, LocalDate to, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap free = RoaringBitmap.andNot(bookable,
+                    FastAggregation.or(Arrays.copyOfRange(booked, dayOf(from), dayOf(to) + 1)));
+            List<Long> ids = new ArrayList<>(limit);
+            PeekableIntIterator iterator = free.getIntIterator();
+            iterator.advanceIfNeeded(toIndex(afterId + 1));
+            while (iterator.hasNext() && ids.size() < limit) {
+                ids.add((long) iterator.next());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalBooked(RentalBookedEvent event) {
+        update(() -> mark(event.getPeriod(), true));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalReturned(RentalReturnedEvent event) {
+        update(() -> mark(event.getPeriod(), false));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        update(() -> {
+            if (event.isAvailable()) {
+                bookable.add(toIndex(event.getBookId()));
+            } else {
+                bookable.remove(toIndex(event.getBookId()));
+            }
+        });
+    }
+
+    private void update(Runnable change) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void mark(RentalPeriod period, boolean isBooked) {
+        int first = Math.max(dayOf(period.getStart()), 0);
+        int last = Math.min(dayOf(period.getEnd()), booked.length - 1);
+        int book = toIndex(period.getBookId());
+        for (int day = first; day <= last; day++) {
+            if (isBooked) {
+                booked[day].add(book);
+            } else {
+                booked[day].remove(book);
+            }
+        }
+    }
+
+    private int dayOf(LocalDate date) {
+        return (int) Math.max(Math.min(ChronoUnit.DAYS.between(origin, date), Integer.MAX_VALUE), Integer.MIN_VALUE);
+    }
+
+    private static int toIndex(long bookId) {
+        return Math.toIntExact(bookId);
+    }
+}
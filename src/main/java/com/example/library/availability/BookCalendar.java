@@ -0,0 +1,154 @@
+package com.example.library.availability;
+
+import com.example.library.availability.model.FreeIntervalDto;
+import com.example.library.book.model.BookAvailabilityChangedEvent;
+import com.example.library.cache.CatalogVersions;
+import com.example.library.rental.RentalRepository;
+import com.example.library.rental.model.RentalBookedEvent;
+import com.example.library.rental.model.RentalPeriod;
+import com.example.library.rental.model.RentalReturnedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Active rentals of recently queried books, sorted by start. Each entry is valid for one version of its book, and the
+// version also goes into the calendar ETag. Versions are drawn from one counter and kept in a cache bounded like the
+// calendars: a commit that touches a book drops its version, and a book without one simply gets the next number, so
+// an evicted version can never come back as one a client still holds.
+@Component
+public class BookCalendar {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(1, 1, 1);
+
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+    private final RentalRepository rentalRepository;
+
+    private final CatalogVersions catalogVersions;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Cache<Long, Long> versions;
+
+    private final Cache<Long, Periods> periodsByBook;
+
+    public BookCalendar(RentalRepository rentalRepository, CatalogVersions catalogVersions,
+                        AvailabilityProperties availabilityProperties, MeterRegistry meterRegistry) {
+        this.rentalRepository = rentalRepository;
+        this.catalogVersions = catalogVersions;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(availabilityProperties.getCalendar().getMaxEntries())
+                .build();
+        this.periodsByBook = Caffeine.newBuilder()
+                .maximumSize(availabilityProperties.getCalendar().getMaxEntries())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, periodsByBook, "book-calendars");
+    }
+
+    public String etag(Long bookId, LocalDate from, LocalDate to) {
+        return catalogVersions.etag("book-" + bookId, version(bookId), from, to);
+    }
+
+    public List<FreeIntervalDto> freeIntervals(Long bookId, LocalDate from, LocalDate to) {
+        long version = version(bookId);
+        Periods periods = periodsByBook.getIfPresent(bookId);
+        if (periods == null || periods.version != version) {
+            periods = new Periods(version, rentalRepository.findActivePeriods(List.of(bookId), FIRST_DAY, LAST_DAY));
+            periodsByBook.put(bookId, periods);
+        }
+        return periods.free(from, to);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalBooked(RentalBookedEvent event) {
+        changed(event.getPeriod().getBookId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalReturned(RentalReturnedEvent event) {
+        changed(event.getPeriod().getBookId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        changed(event.getBookId());
+    }
+
+    private long version(Long bookId) {
+        return versions.get(bookId, id -> generation.incrementAndGet());
+    }
+
+    // A load that read the old version before this change is tagged with it and discarded on the next lookup.
+    private void changed(Long bookId) {
+        versions.invalidate(bookId);
+        periodsByBook.invalidate(bookId);
+    }
+
+    // Periods sorted by start; maxEnds[i] is the latest end among the first i + 1 periods, so the first period
+    // that can reach a given day is found by binary search even when periods overlap.
+    private static final class Periods {
+
+        private final long version;
+        private final LocalDate[] starts;
+        private final LocalDate[] ends;
+        private final LocalDate[] maxEnds;
+
+        private Periods(long version, List<RentalPeriod> periods) {
+            List<RentalPeriod> sorted = new ArrayList<>(periods);
+            sorted.sort(Comparator.comparing(RentalPeriod::getStart));
+            this.version = version;
+            this.starts = new LocalDate[sorted.size()];
+            this.ends = new LocalDate[sorted.size()];
+            this.maxEnds = new LocalDate[sorted.size()];
+            LocalDate maxEnd = FIRST_DAY;
+            for (int i = 0; i < sorted.size(); i++) {
+                starts[i] = sorted.get(i).getStart();
+                ends[i] = sorted.get(i).getEnd();
+                maxEnd = ends[i].isAfter(maxEnd) ? ends[i] : maxEnd;
+                maxEnds[i] = maxEnd;
+            }
+        }
+
+        List<FreeIntervalDto> free(LocalDate from, LocalDate to) {
+            List<FreeIntervalDto> free = new ArrayList<>();
+            LocalDate cursor = from;
+            for (int i = firstEndingOnOrAfter(from); i < starts.length && !starts[i].isAfter(to); i++) {
+                if (starts[i].isAfter(cursor)) {
+                    free.add(new FreeIntervalDto(cursor, starts[i].minusDays(1)));
+                }
+                if (!ends[i].isBefore(cursor)) {
+                    cursor = ends[i].plusDays(1);
+                }
+                if (cursor.isAfter(to)) {
+                    return free;
+                }
+            }
+            free.add(new FreeIntervalDto(cursor, to));
+            return free;
+        }
+
+        private int firstEndingOnOrAfter(LocalDate day) {
+            int low = 0;
+            int high = maxEnds.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (maxEnds[mid].isBefore(day)) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.library.availability.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class BookCalendarDto {
+
+    private Long bookId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<FreeIntervalDto> free;
+
+}
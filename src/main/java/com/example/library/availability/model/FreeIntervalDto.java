@@ -0,0 +1,19 @@
+package com.example.library.availability.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class FreeIntervalDto {
+
+    private LocalDate from;
+    private LocalDate to;
+
+}
@@ -0,0 +1,28 @@
+package com.example.library.book;
+
+import com.example.library.book.model.Book;
+import com.example.library.book.model.BookAvailabilityChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class BookAvailabilityListener {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Book book) {
+        applicationEventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId(), book.isAvailable()));
+    }
+
+    @PostRemove
+    public void onRemove(Book book) {
+        applicationEventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId(), false));
+    }
+}
@@ -1,14 +1,29 @@
 package com.example.library.book;
 
 
+import com.example.library.availability.BookCalendar;
+import com.example.library.availability.model.BookCalendarDto;
 import com.example.library.book.model.BookDto;
 import com.example.library.book.model.CreateBookCommand;
+import com.example.library.bulk.ImportFormat;
+import com.example.library.bulk.ImportReportDto;
+import com.example.library.cache.Catalog;
+import com.example.library.cache.CatalogResponseCache;
+import com.example.library.cache.CatalogVersions;
+import com.example.library.pagination.CursorPage;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 
 @AllArgsConstructor
 @RestController
@@ -17,6 +32,10 @@ public class BookController {
 
     private BookService bookService;
 
+    private CatalogResponseCache catalogResponseCache;
+
+    private BookCalendar bookCalendar;
+
     @PostMapping
     public ResponseEntity<BookDto> createBook(@RequestBody CreateBookCommand createBookCommand) {
         BookDto createdBook = bookService.createBook(createBookCommand);
@@ -31,8 +50,58 @@ public class BookController {
 
 
     @GetMapping
-    public ResponseEntity<Page<BookDto>> getAllBooks(Pageable pageable) {
-        Page<BookDto> books = bookService.getAllBooks(pageable);
-        return new ResponseEntity<>(books, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllBooks(Pageable pageable,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogResponseCache.respond(Catalog.BOOKS, pageable.toString(), ifNoneMatch,
+                () -> bookService.getAllBooks(pageable));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<BookDto>> searchBooks(@RequestParam String q,
+                                                     @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(bookService.searchBooks(q, size));
+    }
+
+    @GetMapping("/available")
+    public ResponseEntity<CursorPage<BookDto>> getAvailableBooks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(bookService.getAvailableBooks(from, to, after, size));
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<BookCalendarDto> getBookCalendar(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = bookCalendar.etag(id, from, to);
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(bookService.getBookCalendar(id, from, to));
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<BookDto>> getBooksAfter(@RequestParam(required = false) String after,
+                                                             @RequestParam(required = false) Integer size,
+                                                             @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(bookService.getBooksAfter(after, size, sort));
+    }
+
+    @PostMapping(value = "/import", consumes = {ImportFormat.NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    public ResponseEntity<ImportReportDto> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                       InputStream body) {
+        ImportReportDto report = bookService.importBooks(body, ImportFormat.of(contentType));
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping(value = "/export", produces = ImportFormat.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "0") Long since) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ImportFormat.NDJSON_VALUE))
+                .body(bookService.exportBooks(since));
     }
 }
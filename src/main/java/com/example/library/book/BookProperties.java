@@ -0,0 +1,35 @@
+package com.example.library.book;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.book")
+public class BookProperties {
+
+    private TitleFilter titleFilter = new TitleFilter();
+
+    private Search search = new Search();
+
+    @Getter
+    @Setter
+    public static class TitleFilter {
+
+        private boolean enabled;
+
+        private long expectedInsertions = 1_000_000;
+
+        private double falsePositiveProbability = 0.01;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Search {
+
+        private int minPrefixLength = 2;
+
+    }
+}
@@ -1,23 +1,82 @@
 package com.example.library.book;
 
 import com.example.library.book.model.Book;
+import com.example.library.book.model.BookDto;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<Book> findAll(Pageable pageable);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT b FROM Book b WHERE b.id = :id")
     Optional<Book> findByIdForWrite(@Param("id") Long id);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findAllByIdForWrite(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForOptimisticWrite(@Param("id") Long id);
+
     @Modifying
     @Query("UPDATE Book b SET b.available = false WHERE b.id = :bookId")
     int blockBook(@Param("bookId") Long id);
 
     boolean existsByTitle(String title);
+
+    @Query("SELECT b FROM Book b WHERE b.id > :id ORDER BY b.id")
+    List<Book> findPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE b.title >= :title AND (b.title > :title OR b.id > :id) ORDER BY b.title, b.id")
+    List<Book> findPageAfterTitle(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE b.author >= :author AND (b.author > :author OR b.id > :id) ORDER BY b.author, b.id")
+    List<Book> findPageAfterAuthor(@Param("author") String author, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.title FROM Book b")
+    Stream<String> streamAllTitles();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.library.book.model.BookDto(b.id, b.title, b.author, b.available) FROM Book b")
+    Stream<BookDto> streamAllDtos();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.id FROM Book b WHERE b.available = true")
+    Stream<Long> streamAvailableIds();
+
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findAllByIdOrderById(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b FROM Book b WHERE b.id > :after AND b.available = true AND NOT EXISTS (" +
+            "SELECT r.id FROM Rental r WHERE r.book = b AND r.returned = false " +
+            "AND r.start <= :endDate AND r.end >= :startDate) ORDER BY b.id")
+    List<Book> findAvailableInPeriodAfter(
+            @Param("after") Long after,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable
+    );
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b FROM Book b WHERE b.id > :since ORDER BY b.id")
+    Stream<Book> streamAllAfter(@Param("since") Long since);
 }
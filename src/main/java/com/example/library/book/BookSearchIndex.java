@@ -0,0 +1,222 @@
+package com.example.library.book;
+
+import com.example.library.book.model.BookAvailabilityChangedEvent;
+import com.example.library.book.model.BookDto;
+import com.example.library.book.model.BookRemovedEvent;
+import com.example.library.book.model.BookSavedEvent;
+import com.example.library.search.DocumentIndex;
+import com.example.library.search.IndexedDocument;
+import com.example.library.search.TextNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+// Inverted index from normalised title and author tokens to bitmaps of book ids. The token dictionary is sorted,
+// so a prefix is a sub-map; every query token must match, and hits are ranked by how well each token matched.
+@Component
+public class BookSearchIndex {
+
+    private static final int TITLE_EXACT = 4;
+
+    private static final int TITLE_PREFIX = 2;
+
+    private static final int AUTHOR_EXACT = 2;
+
+    private static final int AUTHOR_PREFIX = 1;
+
+    private final BookRepository bookRepository;
+
+    private final BookProperties bookProperties;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final Timer queries;
+
+    private final DocumentIndex<String, TreeMap<String, RoaringBitmap>, Document> index =
+            new DocumentIndex<>(TreeMap::new, key -> 2L * key.length());
+
+    public BookSearchIndex(BookRepository bookRepository, BookProperties bookProperties,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.bookProperties = bookProperties;
+        this.transactionManager = transactionManager;
+        this.queries = meterRegistry.timer("library.book.search.queries");
+        index.registerGauges(meterRegistry, "library.book.search", "tokens");
+    }
+
+    @PostConstruct
+    public void reload() {
+        index.reload(transactionManager, bookRepository::streamAllDtos,
+                book -> Document.of(book.getId(), book.getTitle(), book.getAuthor(), book.isAvailable()));
+    }
+
+    public List<BookDto> search(String query, int limit) {
+        String[] terms = TextNormalizer.words(query);
+        if (terms.length == 0) {
+            throw new IllegalArgumentException("Search query must contain at least one letter or digit");
+        }
+        return queries.record(() -> index.read(() -> rank(terms, limit)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        index.put(Document.of(event.getBookId(), event.getTitle(), event.getAuthor(), event.isAvailable()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookRemoved(BookRemovedEvent event) {
+        index.remove(event.getBookId());
+    }
+
+    // Blocking a book is a bulk update that bypasses the entity listeners, so its flag arrives separately.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        index.update(event.getBookId(), document -> document.withAvailable(event.isAvailable()));
+    }
+
+    private List<BookDto> rank(String[] terms, int limit) {
+        RoaringBitmap candidates = null;
+        for (String term : terms) {
+            RoaringBitmap matches = RoaringBitmap.or(matching(term).iterator());
+            candidates = candidates == null ? matches : RoaringBitmap.and(candidates, matches);
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Comparator<Hit> ranking = Comparator.comparingInt((Hit hit) -> hit.score).reversed()
+                .thenComparingLong(hit -> hit.document.id);
+        PriorityQueue<Hit> best = new PriorityQueue<>(ranking.reversed());
+        for (int id : candidates) {
+            Hit hit = new Hit(index.documents().get((long) id), terms);
+            best.add(hit);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking);
+        return hits.stream().map(hit -> hit.document.toDto()).toList();
+    }
+
+    private List<RoaringBitmap> matching(String term) {
+        TreeMap<String, RoaringBitmap> postings = index.postings();
+        List<RoaringBitmap> matches = new ArrayList<>();
+        for (String key : new String[]{"t:" + term, "a:" + term}) {
+            if (term.length() < bookProperties.getSearch().getMinPrefixLength()) {
+                RoaringBitmap ids = postings.get(key);
+                if (ids != null) {
+                    matches.add(ids);
+                }
+            } else {
+                matches.addAll(postings.subMap(key, true, key + Character.MAX_VALUE, false).values());
+            }
+        }
+        return matches;
+    }
+
+    private static final class Document implements IndexedDocument<String> {
+
+        private final long id;
+        private final String title;
+        private final String author;
+        private final boolean available;
+        private final String[] titleTokens;
+        private final String[] authorTokens;
+
+        private Document(long id, String title, String author, boolean available,
+                         String[] titleTokens, String[] authorTokens) {
+            this.id = id;
+            this.title = title;
+            this.author = author;
+            this.available = available;
+            this.titleTokens = titleTokens;
+            this.authorTokens = authorTokens;
+        }
+
+        static Document of(long id, String title, String author, boolean available) {
+            return new Document(id, title, author, available,
+                    TextNormalizer.words(title), TextNormalizer.words(author));
+        }
+
+        Document withAvailable(boolean available) {
+            return new Document(id, title, author, available, titleTokens, authorTokens);
+        }
+
+        BookDto toDto() {
+            return new BookDto(id, title, author, available);
+        }
+
+        @Override
+        public long id() {
+            return id;
+        }
+
+        @Override
+        public void forEachKey(Consumer<? super String> action) {
+            for (String token : titleTokens) {
+                action.accept("t:" + token);
+            }
+            for (String token : authorTokens) {
+                action.accept("a:" + token);
+            }
+        }
+
+        // Strings are estimated from their character counts.
+        @Override
+        public long sizeInBytes() {
+            long bytes = 64 + 2L * (length(title) + length(author));
+            for (String token : titleTokens) {
+                bytes += 48 + 2L * token.length();
+            }
+            for (String token : authorTokens) {
+                bytes += 48 + 2L * token.length();
+            }
+            return bytes;
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+
+    private static final class Hit {
+
+        private final Document document;
+        private final int score;
+
+        private Hit(Document document, String[] terms) {
+            this.document = document;
+            int score = 0;
+            for (String term : terms) {
+                score += Math.max(match(document.titleTokens, term, TITLE_EXACT, TITLE_PREFIX),
+                        match(document.authorTokens, term, AUTHOR_EXACT, AUTHOR_PREFIX));
+            }
+            this.score = score;
+        }
+
+        private static int match(String[] tokens, String term, int exact, int prefix) {
+            int best = 0;
+            for (String token : tokens) {
+                if (token.equals(term)) {
+                    return exact;
+                }
+                if (token.startsWith(term)) {
+                    best = prefix;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.library.book;
+
+import com.example.library.book.model.Book;
+import com.example.library.book.model.BookRemovedEvent;
+import com.example.library.book.model.BookSavedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class BookSearchListener {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Book book) {
+        applicationEventPublisher.publishEvent(
+                new BookSavedEvent(book.getId(), book.getTitle(), book.getAuthor(), book.isAvailable()));
+    }
+
+    @PostRemove
+    public void onRemove(Book book) {
+        applicationEventPublisher.publishEvent(new BookRemovedEvent(book.getId()));
+    }
+}
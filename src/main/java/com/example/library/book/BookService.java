@@ -1,33 +1,77 @@
 package com.example.library.book;
 
 
+import com.example.library.availability.AvailabilityProperties;
+import com.example.library.availability.BookAvailabilityIndex;
+import com.example.library.availability.BookCalendar;
+import com.example.library.availability.model.BookCalendarDto;
 import com.example.library.book.model.Book;
+import com.example.library.book.model.BookAvailabilityChangedEvent;
 import com.example.library.book.model.BookDto;
 import com.example.library.book.model.BookMapper;
 import com.example.library.book.model.CreateBookCommand;
+import com.example.library.bulk.CatalogExporter;
+import com.example.library.bulk.CatalogImporter;
+import com.example.library.bulk.ImportFormat;
+import com.example.library.bulk.ImportReportDto;
+import com.example.library.cache.Catalog;
+import com.example.library.cache.CatalogVersions;
 import com.example.library.exception.DatabaseException;
 import com.example.library.exception.DuplicateResourceException;
 import com.example.library.exception.ResourceNotFoundException;
+import com.example.library.pagination.Cursor;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.PaginationProperties;
+import com.example.library.profiling.CatalogListingEvent;
 import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Set;
 
 
 @AllArgsConstructor
 @Service
 public class BookService {
 
+    private static final String TITLE_UNIQUE_INDEX = "BOOKS_TITLE_UK";
 
     private BookRepository bookRepository;
 
     private BookMapper bookMapper;
 
+    private CatalogImporter catalogImporter;
+
+    private BookTitleFilter bookTitleFilter;
+
+    private PaginationProperties paginationProperties;
+
+    private CatalogExporter catalogExporter;
+
+    private CatalogVersions catalogVersions;
+
+    private BookAvailabilityIndex bookAvailabilityIndex;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private BookCalendar bookCalendar;
+
+    private AvailabilityProperties availabilityProperties;
+
+    private BookSearchIndex bookSearchIndex;
+
     @Transactional
     public BookDto createBook(CreateBookCommand createBookCommand) {
 
@@ -39,8 +83,11 @@ public class BookService {
             throw new IllegalArgumentException("Author cannot be empty");
         }
 
-        if (bookRepository.existsByTitle(createBookCommand.getTitle())) {
-            throw new DuplicateResourceException("Book with title '" + createBookCommand.getTitle() + "' already exists");
+        if (bookTitleFilter.mightContain(createBookCommand.getTitle())) {
+            if (bookRepository.existsByTitle(createBookCommand.getTitle())) {
+                throw new DuplicateResourceException("Book with title '" + createBookCommand.getTitle() + "' already exists");
+            }
+            bookTitleFilter.falsePositive();
         }
 
         Book book = new Book();
@@ -50,23 +97,118 @@ public class BookService {
 
         try {
             book = bookRepository.save(book);
+            bookRepository.flush();
         } catch (DataIntegrityViolationException ex) {
+            if (isTitleViolation(ex)) {
+                throw new DuplicateResourceException("Book with title '" + createBookCommand.getTitle() + "' already exists");
+            }
             throw new DatabaseException("Error occurred while creating the book");
         } catch (OptimisticLockException ole) {
             throw new ConcurrentModificationException("The book was modified by another transaction. Please try again.");
         }
 
+        bookTitleFilter.put(book.getTitle());
+
         return bookMapper.mapToDto(book);
     }
 
+    private static boolean isTitleViolation(DataIntegrityViolationException ex) {
+        return ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toUpperCase().contains(TITLE_UNIQUE_INDEX);
+    }
+
+
+    public ImportReportDto importBooks(InputStream body, ImportFormat format) {
+        Set<String> titles = catalogImporter.preload(bookRepository::streamAllTitles);
+        return catalogImporter.importRows(body, format, CreateBookCommand.class, createBookCommand -> {
+            if (createBookCommand.getTitle() == null || createBookCommand.getTitle().trim().isEmpty()) {
+                throw new IllegalArgumentException("Title cannot be empty");
+            }
+            if (createBookCommand.getAuthor() == null || createBookCommand.getAuthor().trim().isEmpty()) {
+                throw new IllegalArgumentException("Author cannot be empty");
+            }
+            if (!titles.add(createBookCommand.getTitle())) {
+                throw new IllegalArgumentException("Book with title '" + createBookCommand.getTitle() + "' already exists");
+            }
+            bookTitleFilter.put(createBookCommand.getTitle());
+
+            Book book = new Book();
+            book.setTitle(createBookCommand.getTitle());
+            book.setAuthor(createBookCommand.getAuthor());
+            book.setAvailable(true);
+            return book;
+        }, book -> titles.remove(book.getTitle()));
+    }
+
 
     @Transactional
     public void blockBook(Long id) {
         if (bookRepository.blockBook(id) == 0) throw new ResourceNotFoundException("Book", "id", id);
+        catalogVersions.changed(Catalog.BOOKS);
+        applicationEventPublisher.publishEvent(new BookAvailabilityChangedEvent(id, false));
     }
 
 
     public Page<BookDto> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable).map(bookMapper::mapToDto);
+        CatalogListingEvent event = CatalogListingEvent.start("books", "offset");
+        Page<BookDto> books = bookRepository.findAll(pageable).map(bookMapper::mapToDto);
+        event.finish(books.getNumberOfElements());
+        return books;
+    }
+
+    public List<BookDto> searchBooks(String query, Integer size) {
+        return bookSearchIndex.search(query, paginationProperties.resolveSize(size));
+    }
+
+    public StreamingResponseBody exportBooks(Long since) {
+        return catalogExporter.exportEntities(() -> bookRepository.streamAllAfter(since), bookMapper::mapToDto);
+    }
+
+    public CursorPage<BookDto> getAvailableBooks(LocalDate from, LocalDate to, String after, Integer size) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Both from and to are required and from must not be after to");
+        }
+        int pageSize = paginationProperties.resolveSize(size);
+        Cursor cursor = Cursor.decode(after, "id");
+        List<Book> books;
+        if (bookAvailabilityIndex.isEnabled() && bookAvailabilityIndex.covers(from, to)) {
+            List<Long> ids = bookAvailabilityIndex.findAvailable(from, to, cursor.getId(), pageSize + 1);
+            books = ids.isEmpty() ? List.of() : bookRepository.findAllByIdOrderById(ids);
+        } else {
+            books = bookRepository.findAvailableInPeriodAfter(cursor.getId(), from, to, CursorPage.limit(pageSize));
+        }
+        return CursorPage.of(books, pageSize, bookMapper::mapToDto, book -> new Cursor("id", "", book.getId()));
+    }
+
+    public BookCalendarDto getBookCalendar(Long id, LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Both from and to are required and from must not be after to");
+        }
+        int maxDays = availabilityProperties.getCalendar().getMaxDays();
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("A calendar may span at most " + maxDays + " days");
+        }
+        Book book = bookRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Book", "id", id));
+        return new BookCalendarDto(id, from, to,
+                book.isAvailable() ? bookCalendar.freeIntervals(id, from, to) : List.of());
+    }
+
+    public CursorPage<BookDto> getBooksAfter(String after, Integer size, String sort) {
+        int pageSize = paginationProperties.resolveSize(size);
+        Cursor cursor = Cursor.decode(after, sort);
+        Pageable limit = CursorPage.limit(pageSize);
+        CatalogListingEvent event = CatalogListingEvent.start("books", "cursor");
+        CursorPage<BookDto> books = switch (sort) {
+            case "id" -> CursorPage.of(bookRepository.findPageAfterId(cursor.getId(), limit), pageSize,
+                    bookMapper::mapToDto, book -> new Cursor(sort, "", book.getId()));
+            case "title" -> CursorPage.of(bookRepository.findPageAfterTitle(cursor.getValue(), cursor.getId(), limit), pageSize,
+                    bookMapper::mapToDto, book -> new Cursor(sort, book.getTitle(), book.getId()));
+            case "author" -> CursorPage.of(bookRepository.findPageAfterAuthor(cursor.getValue(), cursor.getId(), limit), pageSize,
+                    bookMapper::mapToDto, book -> new Cursor(sort, book.getAuthor(), book.getId()));
+            default -> throw new IllegalArgumentException("Unsupported sort '" + sort + "', expected id, title or author");
+        };
+        event.finish(books.getContent().size());
+        return books;
     }
 }
@@ -0,0 +1,175 @@
+package com.example.library.book;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+// Bloom filter over book titles: a negative answer is definite, a positive one still has to be confirmed by the
+// database. The unique index on books.title stays the source of truth for anything the filter misses.
+@Component
+public class BookTitleFilter {
+
+    private final BookRepository bookRepository;
+
+    private final BookProperties bookProperties;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final Counter negatives;
+
+    private final Counter positives;
+
+    private final Counter falsePositives;
+
+    private volatile Bits bits;
+
+    public BookTitleFilter(BookRepository bookRepository, BookProperties bookProperties,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.bookProperties = bookProperties;
+        this.transactionManager = transactionManager;
+        this.bits = Bits.create(bookProperties.getTitleFilter());
+        this.negatives = meterRegistry.counter("library.book.title-filter.lookups", "result", "negative");
+        this.positives = meterRegistry.counter("library.book.title-filter.lookups", "result", "positive");
+        this.falsePositives = meterRegistry.counter("library.book.title-filter.false.positives");
+        Gauge.builder("library.book.title-filter.memory", this, filter -> filter.bits.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("library.book.title-filter.fpp", this, filter -> filter.bits.expectedFpp())
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return bookProperties.getTitleFilter().isEnabled();
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!isEnabled()) {
+            return;
+        }
+        reload();
+    }
+
+    public void reload() {
+        Bits loaded = Bits.create(bookProperties.getTitleFilter());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> titles = bookRepository.streamAllTitles()) {
+                titles.forEach(loaded::put);
+            }
+        });
+        bits = loaded;
+    }
+
+    public boolean mightContain(String title) {
+        if (!isEnabled()) {
+            return true;
+        }
+        boolean mightContain = bits.mightContain(title);
+        (mightContain ? positives : negatives).increment();
+        return mightContain;
+    }
+
+    public void put(String title) {
+        if (isEnabled()) {
+            bits.put(title);
+        }
+    }
+
+    public void falsePositive() {
+        if (isEnabled()) {
+            falsePositives.increment();
+        }
+    }
+
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashFunctions;
+        private final AtomicLong bitsSet = new AtomicLong();
+
+        private Bits(long bitCount, int hashFunctions) {
+            this.words = new AtomicLongArray(Math.toIntExact((bitCount + 63) / 64));
+            this.bitCount = (long) words.length() * 64;
+            this.hashFunctions = hashFunctions;
+        }
+
+        static Bits create(BookProperties.TitleFilter titleFilter) {
+            long expected = Math.max(titleFilter.getExpectedInsertions(), 1);
+            double fpp = titleFilter.getFalsePositiveProbability();
+            long bitCount = (long) Math.ceil(-expected * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            int hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+            return new Bits(bitCount, hashFunctions);
+        }
+
+        boolean mightContain(String title) {
+            long hash1 = hash(title);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(String title) {
+            long hash1 = hash(title);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+                if ((current & mask) == 0) {
+                    bitsSet.incrementAndGet();
+                }
+            }
+        }
+
+        long sizeInBytes() {
+            return (long) words.length() * Long.BYTES;
+        }
+
+        double expectedFpp() {
+            return Math.pow((double) bitsSet.get() / bitCount, hashFunctions);
+        }
+
+        // FNV-1a over the UTF-16 code units followed by a murmur3 finalizer.
+        private static long hash(String title) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < title.length(); i++) {
+                hash ^= title.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb9fe1a85ec53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
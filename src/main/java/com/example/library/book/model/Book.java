@@ -1,8 +1,13 @@
 package com.example.library.book.model;
 
+import com.example.library.book.BookAvailabilityListener;
+import com.example.library.book.BookSearchListener;
+import com.example.library.cache.CatalogChangeListener;
 import com.example.library.rental.model.Rental;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 
@@ -12,10 +17,14 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Entity
+@EntityListeners({CatalogChangeListener.class, BookAvailabilityListener.class, BookSearchListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "books")
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     private String title;
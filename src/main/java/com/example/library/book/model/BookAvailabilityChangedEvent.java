@@ -0,0 +1,14 @@
+package com.example.library.book.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BookAvailabilityChangedEvent {
+
+    private final Long bookId;
+
+    private final boolean available;
+
+}
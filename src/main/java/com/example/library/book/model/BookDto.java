@@ -3,6 +3,8 @@ package com.example.library.book.model;
 import lombok.*;
 @Setter
 @Getter
+@NoArgsConstructor
+@AllArgsConstructor
 public class BookDto {
 
     private Long id;
@@ -0,0 +1,12 @@
+package com.example.library.book.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BookRemovedEvent {
+
+    private final Long bookId;
+
+}
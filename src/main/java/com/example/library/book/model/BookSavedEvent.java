@@ -0,0 +1,18 @@
+package com.example.library.book.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BookSavedEvent {
+
+    private final Long bookId;
+
+    private final String title;
+
+    private final String author;
+
+    private final boolean available;
+
+}
@@ -0,0 +1,63 @@
+package com.example.library.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+@Component
+public class CatalogExporter {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final ObjectMapper objectMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final EntityManager entityManager;
+
+    // Entities are detached once written so the persistence context does not grow with the table.
+    public <E> StreamingResponseBody exportEntities(Supplier<Stream<E>> rows, Function<E, ?> toDto) {
+        return out -> write(out, rows, toDto, entityManager::detach);
+    }
+
+    public <T> StreamingResponseBody export(Supplier<Stream<T>> rows) {
+        return out -> write(out, rows, Function.identity(), row -> {
+        });
+    }
+
+    private <E> void write(OutputStream out, Supplier<Stream<E>> rows, Function<E, ?> toDto, Consumer<E> afterWrite) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        BufferedOutputStream buffered = new BufferedOutputStream(out);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<E> stream = rows.get()) {
+                long written = 0;
+                for (E row : (Iterable<E>) stream::iterator) {
+                    buffered.write(objectMapper.writeValueAsBytes(toDto.apply(row)));
+                    buffered.write('\n');
+                    afterWrite.accept(row);
+                    if (++written % FLUSH_EVERY_ROWS == 0) {
+                        buffered.flush();
+                    }
+                }
+                buffered.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to write export", ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.library.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+@Component
+public class CatalogImporter {
+
+    private final ObjectMapper objectMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final EntityManager entityManager;
+
+    private final ImportProperties importProperties;
+
+    public <K> Set<K> preload(Supplier<Stream<K>> keys) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            Set<K> loaded = new HashSet<>();
+            try (Stream<K> stream = keys.get()) {
+                stream.forEach(loaded::add);
+            }
+            return loaded;
+        });
+    }
+
+    public <T, E> ImportReportDto importRows(InputStream body, ImportFormat format, Class<T> rowType,
+                                             Function<T, E> toEntity) {
+        return importRows(body, format, rowType, toEntity, entity -> { });
+    }
+
+    // Entities of a chunk whose transaction failed are handed to onChunkRejected, so state built up while mapping
+    // rows, such as a set of titles already taken, can forget them again.
+    public <T, E> ImportReportDto importRows(InputStream body, ImportFormat format, Class<T> rowType,
+                                             Function<T, E> toEntity, Consumer<? super E> onChunkRejected) {
+        long startedAt = System.nanoTime();
+        Progress<E> progress = new Progress<>(importProperties.getMaxReportedRejections());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && header == null) {
+                    header = CsvLineParser.parse(line);
+                    continue;
+                }
+                progress.rows++;
+                try {
+                    T row = format == ImportFormat.NDJSON
+                            ? objectMapper.readValue(line, rowType)
+                            : objectMapper.convertValue(toFields(header, line), rowType);
+                    progress.accept(lineNumber, toEntity.apply(row));
+                } catch (JsonProcessingException ex) {
+                    progress.reject(lineNumber, "Malformed row: " + ex.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException ex) {
+                    progress.reject(lineNumber, ex.getMessage());
+                    continue;
+                }
+                if (progress.chunk.size() >= importProperties.getChunkSize()) {
+                    persistChunk(progress, onChunkRejected);
+                }
+            }
+            persistChunk(progress, onChunkRejected);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read import body", ex);
+        }
+
+        long durationNanos = Math.max(System.nanoTime() - startedAt, 1);
+        double rowsPerSecond = progress.rows * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+        return new ImportReportDto(progress.rows, progress.imported, progress.rejected,
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), rowsPerSecond, progress.rejections);
+    }
+
+    // The shared EntityManager used here is not behind repository exception translation, so a failed flush or commit
+    // surfaces as a raw PersistenceException or TransactionException rather than a DataAccessException.
+    private <E> void persistChunk(Progress<E> progress, Consumer<? super E> onChunkRejected) {
+        if (progress.chunk.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                progress.chunk.forEach(entityManager::persist);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            progress.imported += progress.chunk.size();
+        } catch (DataAccessException | PersistenceException | TransactionException ex) {
+            String reason = "Chunk rejected: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            progress.chunkLines.forEach(line -> progress.reject(line, reason));
+            progress.chunk.forEach(onChunkRejected);
+        }
+        progress.chunk.clear();
+        progress.chunkLines.clear();
+    }
+
+    private static Map<String, String> toFields(List<String> header, String line) {
+        List<String> values = CsvLineParser.parse(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields but found " + values.size());
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i).trim(), values.get(i));
+        }
+        return fields;
+    }
+
+    private static final class Progress<E> {
+
+        private final int maxReportedRejections;
+        private final List<E> chunk = new ArrayList<>();
+        private final List<Long> chunkLines = new ArrayList<>();
+        private final List<ImportRejectionDto> rejections = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long rejected;
+
+        private Progress(int maxReportedRejections) {
+            this.maxReportedRejections = maxReportedRejections;
+        }
+
+        private void accept(long line, E entity) {
+            chunk.add(entity);
+            chunkLines.add(line);
+        }
+
+        private void reject(long line, String reason) {
+            rejected++;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new ImportRejectionDto(line, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.library.bulk;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+
+    NDJSON,
+    CSV;
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String CSV_VALUE = "text/csv";
+
+    public static ImportFormat of(MediaType contentType) {
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(NDJSON_VALUE))) {
+            return NDJSON;
+        }
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Unsupported import format " + contentType);
+    }
+
+}
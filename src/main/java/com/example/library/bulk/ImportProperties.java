@@ -0,0 +1,16 @@
+package com.example.library.bulk;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.import")
+public class ImportProperties {
+
+    private int chunkSize = 500;
+
+    private int maxReportedRejections = 100;
+
+}
@@ -0,0 +1,17 @@
+package com.example.library.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ImportRejectionDto {
+
+    private long line;
+    private String reason;
+
+}
@@ -0,0 +1,23 @@
+package com.example.library.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ImportReportDto {
+
+    private long rows;
+    private long imported;
+    private long rejected;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private List<ImportRejectionDto> rejections;
+
+}
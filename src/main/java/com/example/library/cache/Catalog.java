@@ -0,0 +1,8 @@
+package com.example.library.cache;
+
+public enum Catalog {
+
+    BOOKS,
+    CLIENTS
+
+}
@@ -0,0 +1,27 @@
+package com.example.library.cache;
+
+import com.example.library.book.model.Book;
+import com.example.library.client.model.Client;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class CatalogChangeListener {
+
+    private final CatalogVersions catalogVersions;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Book) {
+            catalogVersions.changed(Catalog.BOOKS);
+        } else if (entity instanceof Client) {
+            catalogVersions.changed(Catalog.CLIENTS);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.library.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+@Component
+public class CatalogResponseCache {
+
+    private final CatalogVersions catalogVersions;
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, CachedResponse> responses;
+
+    public CatalogResponseCache(CatalogVersions catalogVersions, ObjectMapper objectMapper,
+                                ResponseCacheProperties responseCacheProperties, MeterRegistry meterRegistry) {
+        this.catalogVersions = catalogVersions;
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(responseCacheProperties.getMaxEntries())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "catalog-responses");
+    }
+
+    public ResponseEntity<byte[]> respond(Catalog catalog, String key, String ifNoneMatch, Supplier<?> body) {
+        long version = catalogVersions.current(catalog);
+        String cacheKey = catalog + ":" + key;
+        String etag = catalogVersions.etag(catalog.name().toLowerCase(), version,
+                Integer.toHexString(cacheKey.hashCode()));
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        CachedResponse cached = responses.getIfPresent(cacheKey);
+        if (cached == null || cached.version != version) {
+            cached = new CachedResponse(version, serialize(body.get()));
+            responses.put(cacheKey, cached);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cached.body);
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize catalog response", ex);
+        }
+    }
+
+    private static final class CachedResponse {
+
+        private final long version;
+
+        private final byte[] body;
+
+        private CachedResponse(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.library.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CatalogVersions {
+
+    // Part of every ETag so that tags handed out before a restart never match the fresh counters.
+    private final long epoch = System.currentTimeMillis();
+
+    private final Map<Catalog, AtomicLong> versions = new EnumMap<>(Catalog.class);
+
+    public CatalogVersions() {
+        for (Catalog catalog : Catalog.values()) {
+            versions.put(catalog, new AtomicLong());
+        }
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long current(Catalog catalog) {
+        return versions.get(catalog).get();
+    }
+
+    public String etag(String resource, long version, Object... qualifiers) {
+        StringBuilder etag = new StringBuilder("\"")
+                .append(resource).append('-').append(epoch).append('-').append(version);
+        for (Object qualifier : qualifiers) {
+            etag.append('-').append(qualifier);
+        }
+        return etag.append('"').toString();
+    }
+
+    // If-None-Match compares weakly (RFC 9110): any listed tag, with or without W/, or * matches.
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Bumped after commit, so a reader that sees the new version never reads the old rows.
+    public void changed(Catalog catalog) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.get(catalog).incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.get(catalog).incrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.library.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.response-cache")
+public class ResponseCacheProperties {
+
+    private long maxEntries = 1000;
+
+}
@@ -0,0 +1,19 @@
+package com.example.library.cache;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // The Caffeine cache manager is a JVM-wide singleton, so regions are prefixed with the database they cache;
+    // two application contexts on different databases must not share entries.
+    @Bean
+    public HibernatePropertiesCustomizer cacheRegionPrefixCustomizer(DataSourceProperties dataSourceProperties) {
+        String prefix = dataSourceProperties.determineUrl().replaceAll("[^A-Za-z0-9]+", "-");
+        return properties -> properties.put(AvailableSettings.CACHE_REGION_PREFIX, prefix);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.library.cache;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+// Hibernate's own statistics cover hits, misses and puts per region; the JCache statistics behind each region
+// add evictions and removals, which Hibernate does not see.
+@RequiredArgsConstructor
+@Component
+public class SecondLevelCacheMetrics {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void bind() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        String prefix = sessionFactory.getSessionFactoryOptions().getCacheRegionPrefix();
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (String regionName : sessionFactory.getCache().getCacheRegionNames()) {
+            String cacheName = prefix == null ? regionName : prefix + "." + regionName;
+            Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                new JCacheMetrics<>(cache, Tags.of("region", regionName)).bindTo(meterRegistry);
+            }
+        }
+    }
+}
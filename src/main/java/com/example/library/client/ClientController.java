@@ -2,13 +2,23 @@ package com.example.library.client;
 
 import com.example.library.client.model.ClientDto;
 import com.example.library.client.model.CreateClientCommand;
+import com.example.library.bulk.ImportFormat;
+import com.example.library.bulk.ImportReportDto;
+import com.example.library.cache.Catalog;
+import com.example.library.cache.CatalogResponseCache;
+import com.example.library.pagination.CursorPage;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
 
 @AllArgsConstructor
 @RestController
@@ -16,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 public class ClientController {
 
     private final ClientService clientService;
+    private final CatalogResponseCache catalogResponseCache;
 
     @PostMapping
     public ResponseEntity<ClientDto> createClient(@Valid @RequestBody CreateClientCommand createClientCommand) {
@@ -24,9 +35,23 @@ public class ClientController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<ClientDto>> getAllClients(Pageable pageable) {
-        Page<ClientDto> clientDtoPage = clientService.getAllClients(pageable);
-        return ResponseEntity.ok(clientDtoPage);
+    public ResponseEntity<byte[]> getAllClients(Pageable pageable,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogResponseCache.respond(Catalog.CLIENTS, pageable.toString(), ifNoneMatch,
+                () -> clientService.getAllClients(pageable));
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ClientDto>> getClientsAfter(@RequestParam(required = false) String after,
+                                                                 @RequestParam(required = false) Integer size,
+                                                                 @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(clientService.getClientsAfter(after, size, sort));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ClientDto>> searchClients(@RequestParam String name,
+                                                         @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(clientService.searchClients(name, size));
     }
 
     @GetMapping("/{id}")
@@ -34,4 +59,18 @@ public class ClientController {
         ClientDto clientDto = clientService.getClientById(id);
         return ResponseEntity.ok(clientDto);
     }
+
+    @PostMapping(value = "/import", consumes = {ImportFormat.NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    public ResponseEntity<ImportReportDto> importClients(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                       InputStream body) {
+        ImportReportDto report = clientService.importClients(body, ImportFormat.of(contentType));
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping(value = "/export", produces = ImportFormat.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportClients(@RequestParam(defaultValue = "0") Long since) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ImportFormat.NDJSON_VALUE))
+                .body(clientService.exportClients(since));
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.library.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.client")
+public class ClientProperties {
+
+    private Search search = new Search();
+
+    @Getter
+    @Setter
+    public static class Search {
+
+        private double minSimilarity = 0.5;
+
+    }
+}
@@ -1,9 +1,33 @@
 package com.example.library.client;
 
 import com.example.library.client.model.Client;
+import com.example.library.client.model.ClientDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
 
+    @Query("SELECT c FROM Client c WHERE c.id > :id ORDER BY c.id")
+    List<Client> findPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT c FROM Client c WHERE c.lastName >= :lastName AND (c.lastName > :lastName OR c.id > :id) ORDER BY c.lastName, c.id")
+    List<Client> findPageAfterLastName(@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c FROM Client c WHERE c.id > :since ORDER BY c.id")
+    Stream<Client> streamAllAfter(@Param("since") Long since);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.library.client.model.ClientDto(c.id, c.firstName, c.lastName) FROM Client c")
+    Stream<ClientDto> streamAllDtos();
+
 }
@@ -0,0 +1,171 @@
+package com.example.library.client;
+
+import com.example.library.client.model.ClientDto;
+import com.example.library.client.model.ClientRemovedEvent;
+import com.example.library.client.model.ClientSavedEvent;
+import com.example.library.search.DocumentIndex;
+import com.example.library.search.IndexedDocument;
+import com.example.library.search.TextNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+// Trigram index over client names. Every word is padded ("  jan ") before it is cut into trigrams, so short
+// input still has enough of them and word starts weigh more. A client matches when it shares at least
+// minSimilarity of the query's trigrams and ranks by how many it shares, then by id.
+@Component
+public class ClientSearchIndex {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final ClientRepository clientRepository;
+
+    private final ClientProperties clientProperties;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final Timer queries;
+
+    // Trigrams are packed into primitive longs, so a key costs nothing beyond its map entry.
+    private final DocumentIndex<Long, HashMap<Long, RoaringBitmap>, Document> index =
+            new DocumentIndex<>(HashMap::new, key -> 0);
+
+    public ClientSearchIndex(ClientRepository clientRepository, ClientProperties clientProperties,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.clientRepository = clientRepository;
+        this.clientProperties = clientProperties;
+        this.transactionManager = transactionManager;
+        this.queries = meterRegistry.timer("library.client.search.queries");
+        index.registerGauges(meterRegistry, "library.client.search", "trigrams");
+    }
+
+    @PostConstruct
+    public void reload() {
+        index.reload(transactionManager, clientRepository::streamAllDtos,
+                client -> Document.of(client.getId(), client.getFirstName(), client.getLastName()));
+    }
+
+    public List<ClientDto> search(String name, int limit) {
+        long[] trigrams = trigrams(name);
+        if (trigrams.length == 0) {
+            throw new IllegalArgumentException("Search name must contain at least one letter or digit");
+        }
+        return queries.record(() -> index.read(() -> rank(trigrams, limit)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientSaved(ClientSavedEvent event) {
+        index.put(Document.of(event.getClientId(), event.getFirstName(), event.getLastName()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientRemoved(ClientRemovedEvent event) {
+        index.remove(event.getClientId());
+    }
+
+    // A client sharing k of the n query trigrams must appear in one of the (n - k + 1) rarest posting lists, so
+    // their union bounds the candidates and the common trigrams are only ever intersected with it. levels[j] then
+    // holds the candidates found in at least j lists, which gives exact shared counts from bitmap operations alone.
+    private List<ClientDto> rank(long[] trigrams, int limit) {
+        int required = Math.max(1, (int) Math.ceil(clientProperties.getSearch().getMinSimilarity() * trigrams.length));
+        Map<Long, RoaringBitmap> postings = index.postings();
+        List<RoaringBitmap> lists = new ArrayList<>(trigrams.length);
+        for (long trigram : trigrams) {
+            lists.add(postings.getOrDefault(trigram, EMPTY));
+        }
+        lists.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        RoaringBitmap candidates = RoaringBitmap.or(lists.subList(0, trigrams.length - required + 1).iterator());
+
+        RoaringBitmap[] levels = new RoaringBitmap[trigrams.length + 2];
+        for (int j = 0; j < levels.length; j++) {
+            levels[j] = new RoaringBitmap();
+        }
+        int merged = 0;
+        for (RoaringBitmap list : lists) {
+            if (list.isEmpty()) {
+                continue;
+            }
+            RoaringBitmap ids = RoaringBitmap.and(list, candidates);
+            merged++;
+            for (int j = merged; j > 1; j--) {
+                levels[j].or(RoaringBitmap.and(levels[j - 1], ids));
+            }
+            levels[1].or(ids);
+        }
+
+        List<ClientDto> hits = new ArrayList<>(limit);
+        for (int shared = merged; shared >= required && hits.size() < limit; shared--) {
+            PeekableIntIterator ids = RoaringBitmap.andNot(levels[shared], levels[shared + 1]).getIntIterator();
+            while (ids.hasNext() && hits.size() < limit) {
+                hits.add(index.documents().get((long) ids.next()).toDto());
+            }
+        }
+        return hits;
+    }
+
+    // Distinct trigrams in ascending order, each packed as three 21-bit code points.
+    static long[] trigrams(String text) {
+        TreeSet<Long> trigrams = new TreeSet<>();
+        for (String word : TextNormalizer.words(text)) {
+            int[] codePoints = ("  " + word + " ").codePoints().toArray();
+            for (int i = 0; i + 2 < codePoints.length; i++) {
+                trigrams.add(((long) codePoints[i] << 42) | ((long) codePoints[i + 1] << 21) | codePoints[i + 2]);
+            }
+        }
+        return trigrams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static final class Document implements IndexedDocument<Long> {
+
+        private final long id;
+        private final String firstName;
+        private final String lastName;
+        private final long[] trigrams;
+
+        private Document(long id, String firstName, String lastName) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.trigrams = trigrams(firstName + " " + lastName);
+        }
+
+        static Document of(long id, String firstName, String lastName) {
+            return new Document(id, firstName, lastName);
+        }
+
+        ClientDto toDto() {
+            return new ClientDto(id, firstName, lastName);
+        }
+
+        @Override
+        public long id() {
+            return id;
+        }
+
+        @Override
+        public void forEachKey(Consumer<? super Long> action) {
+            for (long trigram : trigrams) {
+                action.accept(trigram);
+            }
+        }
+
+        // Estimated from the names and the trigram array.
+        @Override
+        public long sizeInBytes() {
+            return 64 + 2L * (firstName.length() + lastName.length()) + 8L * trigrams.length;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.library.client;
+
+import com.example.library.client.model.Client;
+import com.example.library.client.model.ClientRemovedEvent;
+import com.example.library.client.model.ClientSavedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class ClientSearchListener {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Client client) {
+        applicationEventPublisher.publishEvent(
+                new ClientSavedEvent(client.getId(), client.getFirstName(), client.getLastName()));
+    }
+
+    @PostRemove
+    public void onRemove(Client client) {
+        applicationEventPublisher.publishEvent(new ClientRemovedEvent(client.getId()));
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.library.client;
 
+import com.example.library.bulk.CatalogExporter;
+import com.example.library.bulk.CatalogImporter;
+import com.example.library.bulk.ImportFormat;
+import com.example.library.bulk.ImportReportDto;
 import com.example.library.client.model.Client;
 import com.example.library.client.model.ClientDto;
 import com.example.library.client.model.ClientMapper;
 import com.example.library.client.model.CreateClientCommand;
 import com.example.library.exception.ResourceNotFoundException;
+import com.example.library.pagination.Cursor;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.PaginationProperties;
+import com.example.library.profiling.CatalogListingEvent;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
 
 @AllArgsConstructor
 @Service
@@ -16,6 +28,10 @@ public class ClientService {
 
     private final ClientRepository clientRepository;
     private final ClientMapper clientMapper;
+    private final CatalogImporter catalogImporter;
+    private final PaginationProperties paginationProperties;
+    private final CatalogExporter catalogExporter;
+    private final ClientSearchIndex clientSearchIndex;
 
     public ClientDto createClient(CreateClientCommand createClientCommand) {
         Client newClient = clientMapper.mapToEntity(createClientCommand);
@@ -23,9 +39,48 @@ public class ClientService {
         return clientMapper.mapToDto(savedClient);
     }
 
+    public ImportReportDto importClients(InputStream body, ImportFormat format) {
+        return catalogImporter.importRows(body, format, CreateClientCommand.class, createClientCommand -> {
+            if (createClientCommand.getFirstName() == null || createClientCommand.getFirstName().isBlank()) {
+                throw new IllegalArgumentException("firstName cannot be blank");
+            }
+            if (createClientCommand.getLastName() == null || createClientCommand.getLastName().isBlank()) {
+                throw new IllegalArgumentException("lastName cannot be blank");
+            }
+            return clientMapper.mapToEntity(createClientCommand);
+        });
+    }
+
     public Page<ClientDto> getAllClients(Pageable pageable) {
+        CatalogListingEvent event = CatalogListingEvent.start("clients", "offset");
         Page<Client> clientsPage = clientRepository.findAll(pageable);
-        return clientsPage.map(clientMapper::mapToDto);
+        Page<ClientDto> clients = clientsPage.map(clientMapper::mapToDto);
+        event.finish(clients.getNumberOfElements());
+        return clients;
+    }
+
+    public List<ClientDto> searchClients(String name, Integer size) {
+        return clientSearchIndex.search(name, paginationProperties.resolveSize(size));
+    }
+
+    public StreamingResponseBody exportClients(Long since) {
+        return catalogExporter.exportEntities(() -> clientRepository.streamAllAfter(since), clientMapper::mapToDto);
+    }
+
+    public CursorPage<ClientDto> getClientsAfter(String after, Integer size, String sort) {
+        int pageSize = paginationProperties.resolveSize(size);
+        Cursor cursor = Cursor.decode(after, sort);
+        Pageable limit = CursorPage.limit(pageSize);
+        CatalogListingEvent event = CatalogListingEvent.start("clients", "cursor");
+        CursorPage<ClientDto> clients = switch (sort) {
+            case "id" -> CursorPage.of(clientRepository.findPageAfterId(cursor.getId(), limit), pageSize,
+                    clientMapper::mapToDto, client -> new Cursor(sort, "", client.getId()));
+            case "lastName" -> CursorPage.of(clientRepository.findPageAfterLastName(cursor.getValue(), cursor.getId(), limit), pageSize,
+                    clientMapper::mapToDto, client -> new Cursor(sort, client.getLastName(), client.getId()));
+            default -> throw new IllegalArgumentException("Unsupported sort '" + sort + "', expected id or lastName");
+        };
+        event.finish(clients.getContent().size());
+        return clients;
     }
 
     public ClientDto getClientById(Long id) {
@@ -0,0 +1,12 @@
+package com.example.library.client.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ClientRemovedEvent {
+
+    private final Long clientId;
+
+}
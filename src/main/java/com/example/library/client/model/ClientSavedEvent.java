@@ -0,0 +1,16 @@
+package com.example.library.client.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ClientSavedEvent {
+
+    private final Long clientId;
+
+    private final String firstName;
+
+    private final String lastName;
+
+}
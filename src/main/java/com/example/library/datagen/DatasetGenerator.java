@@ -0,0 +1,174 @@
+package com.example.library.datagen;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+// Each table draws from its own stream split off the seed, so one seed always reproduces the same rows.
+@RequiredArgsConstructor
+@Component
+public class DatasetGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "Adam", "Anna", "Bartosz", "Beata", "Carl", "Clara", "Daniel", "Dorota", "Emil", "Ewa", "Filip", "Fiona",
+            "Grzegorz", "Hanna", "Igor", "Irena", "Jakub", "Jane", "John", "Julia", "Karol", "Katarzyna", "Leon",
+            "Lucy", "Marek", "Maria", "Nina", "Oliver", "Olga", "Paul", "Piotr", "Rosa", "Sam", "Sofia", "Tomasz",
+            "Ula", "Victor", "Wanda", "Zofia", "Zygmunt"};
+
+    private static final String[] NAME_SYLLABLES = {
+            "ko", "wal", "ski", "no", "wak", "lew", "an", "dow", "mar", "czyk", "ber", "son", "hal", "ma", "ri",
+            "ten", "gar", "bro", "vic", "sel"};
+
+    private static final String[] TITLE_ADJECTIVES = {
+            "Silent", "Hidden", "Last", "Broken", "Golden", "Distant", "Crimson", "Forgotten", "Endless", "Quiet",
+            "Burning", "Lost", "Northern", "Winter", "Secret", "Shattered"};
+
+    private static final String[] TITLE_NOUNS = {
+            "River", "Kingdom", "Garden", "Empire", "Harbor", "Forest", "Letter", "Mirror", "Voyage", "Orchard",
+            "Tower", "Island", "Machine", "Archive", "Storm", "Promise"};
+
+    private static final int AUTHORS_PER_BOOK = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatasetProperties datasetProperties;
+
+    public DatasetReportDto generate() {
+        long startedAt = System.nanoTime();
+        DatasetProperties settings = datasetProperties;
+        LocalDate asOf = settings.getAsOf() != null ? settings.getAsOf() : LocalDate.now();
+        SplittableRandom root = new SplittableRandom(settings.getSeed());
+        SplittableRandom clientRandom = root.split();
+        SplittableRandom bookRandom = root.split();
+        SplittableRandom rentalRandom = root.split();
+
+        long[] clientIds = insert("clients", "first_name, last_name", settings.getClients(),
+                i -> new Object[]{pick(FIRST_NAMES, clientRandom), lastName(clientRandom)});
+
+        String[] authors = new String[Math.max(1, settings.getBooks() / AUTHORS_PER_BOOK)];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = pick(FIRST_NAMES, bookRandom) + " " + lastName(bookRandom);
+        }
+        // The running number keeps titles unique, as the unique index on books.title requires.
+        long[] bookIds = insert("books", "title, author, available", settings.getBooks(),
+                i -> new Object[]{pick(TITLE_ADJECTIVES, bookRandom) + " " + pick(TITLE_NOUNS, bookRandom) + " " + (i + 1),
+                        pick(authors, bookRandom), true});
+
+        RentalTimeline timeline = new RentalTimeline(settings, asOf, bookIds.length, clientIds.length,
+                rentalRandom);
+        insert("rentals", "client_id, book_id, start_date, end_date, returned, version", settings.getRentals(),
+                i -> timeline.next(clientIds, bookIds));
+
+        return new DatasetReportDto(settings.getSeed(), asOf, clientIds.length, bookIds.length, settings.getRentals(),
+                timeline.open, timeline.overdue, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    private long[] insert(String table, String columns, int count, IntFunction<Object[]> row) {
+        long firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class) + 1;
+        int width = columns.split(",").length;
+        String sql = "INSERT INTO " + table + " (id, " + columns + ") VALUES (?" + ", ?".repeat(width) + ")";
+        int batchSize = datasetProperties.getBatchSize();
+        List<Object[]> rows = new ArrayList<>(Math.min(count, batchSize));
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            Object[] values = row.apply(i);
+            Object[] withId = new Object[width + 1];
+            ids[i] = firstId + i;
+            withId[0] = ids[i];
+            System.arraycopy(values, 0, withId, 1, width);
+            rows.add(withId);
+            if (rows.size() == batchSize) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+        // Pooled ids are handed out below the sequence value, so leave a whole block of room.
+        jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH " + (firstId + count + 50));
+        return ids;
+    }
+
+    private static String lastName(SplittableRandom random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) {
+            name.append(pick(NAME_SYLLABLES, random));
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static <T> T pick(T[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static final class RentalTimeline {
+
+        private final DatasetProperties settings;
+        private final LocalDate asOf;
+        private final SplittableRandom random;
+        private final ZipfDistribution popularity;
+        private final int[] bookByRank;
+        private final BitSet bookedOut = new BitSet();
+        private long open;
+        private long overdue;
+
+        private RentalTimeline(DatasetProperties settings, LocalDate asOf, int books, int clients,
+                               SplittableRandom random) {
+            if (settings.getRentals() > 0 && (books == 0 || clients == 0)) {
+                throw new IllegalArgumentException("Rentals cannot be generated without books and clients");
+            }
+            this.settings = settings;
+            this.asOf = asOf;
+            this.random = random;
+            this.popularity = books > 0 ? new ZipfDistribution(books, settings.getPopularitySkew()) : null;
+            this.bookByRank = new int[books];
+            for (int i = 0; i < books; i++) {
+                bookByRank[i] = i;
+            }
+            for (int i = books - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = bookByRank[i];
+                bookByRank[i] = bookByRank[j];
+                bookByRank[j] = swap;
+            }
+        }
+
+        private Object[] next(long[] clientIds, long[] bookIds) {
+            int book = bookByRank[popularity.sample(random)];
+            long client = clientIds[random.nextInt(clientIds.length)];
+            int days = 1 + random.nextInt(settings.getMaxRentalDays());
+            LocalDate start = asOf.minusDays(settings.getHistoryDays())
+                    .plusDays(random.nextInt(settings.getHistoryDays() + settings.getFutureDays()));
+            LocalDate end = start.plusDays(days - 1);
+
+            boolean finished = end.isBefore(asOf);
+            boolean keepOpen = !finished || random.nextDouble() < settings.getOverdueShare();
+            if (keepOpen && !bookedOut.get(book)) {
+                bookedOut.set(book);
+                open++;
+                if (finished) {
+                    overdue++;
+                }
+                return new Object[]{client, bookIds[book], Date.valueOf(start), Date.valueOf(end), false, 0};
+            }
+            if (!finished) {
+                // The book is already out, so this one becomes part of its returned history instead.
+                end = asOf.minusDays(1 + random.nextInt(settings.getHistoryDays()));
+                start = end.minusDays(days - 1);
+            }
+            return new Object[]{client, bookIds[book], Date.valueOf(start), Date.valueOf(end), true, 0};
+        }
+    }
+}
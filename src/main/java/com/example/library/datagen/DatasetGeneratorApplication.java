@@ -0,0 +1,17 @@
+package com.example.library.datagen;
+
+import com.example.library.LibraryApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+// Boots without a web server under the datagen profile, fills the database from application-datagen.yml and exits.
+public class DatasetGeneratorApplication {
+
+    public static void main(String[] args) {
+        System.exit(SpringApplication.exit(new SpringApplicationBuilder(LibraryApplication.class)
+                .profiles("datagen")
+                .web(WebApplicationType.NONE)
+                .run(args)));
+    }
+}
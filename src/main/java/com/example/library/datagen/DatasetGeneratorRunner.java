@@ -0,0 +1,25 @@
+package com.example.library.datagen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("datagen")
+public class DatasetGeneratorRunner implements ApplicationRunner {
+
+    private final DatasetGenerator datasetGenerator;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        DatasetReportDto report = datasetGenerator.generate();
+        log.info("Generated {} clients, {} books and {} rentals ({} open, {} overdue) with seed {} as of {} in {} ms",
+                report.getClients(), report.getBooks(), report.getRentals(), report.getOpenRentals(),
+                report.getOverdueRentals(), report.getSeed(), report.getAsOf(), report.getDurationMillis());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.library.datagen;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.datagen")
+public class DatasetProperties {
+
+    private long seed = 42;
+
+    // Left unset it is the current date, so runs on different days produce different rows.
+    private LocalDate asOf;
+
+    private int clients = 1_000_000;
+
+    private int books = 1_000_000;
+
+    private int rentals = 5_000_000;
+
+    private double popularitySkew = 1.0;
+
+    private int historyDays = 730;
+
+    private int futureDays = 60;
+
+    private int maxRentalDays = 30;
+
+    private double overdueShare = 0.05;
+
+    private int batchSize = 10_000;
+
+}
@@ -0,0 +1,25 @@
+package com.example.library.datagen;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class DatasetReportDto {
+
+    private long seed;
+    private LocalDate asOf;
+    private long clients;
+    private long books;
+    private long rentals;
+    private long openRentals;
+    private long overdueRentals;
+    private long durationMillis;
+
+}
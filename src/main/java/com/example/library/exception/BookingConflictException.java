@@ -0,0 +1,8 @@
+package com.example.library.exception;
+
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
@@ -19,6 +19,18 @@ public class GlobalExceptionHandler {
         return new ExceptionDto(exception.getMessage());
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ExceptionDto handleIllegalArgumentException(IllegalArgumentException exception) {
+        return new ExceptionDto(exception.getMessage());
+    }
+
+    @ExceptionHandler(BookingConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ExceptionDto handleBookingConflictException(BookingConflictException exception) {
+        return new ExceptionDto(exception.getMessage());
+    }
+
     @ExceptionHandler(DatabaseException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ExceptionDto handleDatabaseException(DatabaseException exception) {
@@ -0,0 +1,29 @@
+package com.example.library.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// The timed call is the SELECT ... FOR UPDATE itself: the lock wait plus one indexed read.
+@Component
+public class LockWaitTimers {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public LockWaitTimers(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T acquire(String lock, Supplier<T> locking) {
+        return timers.computeIfAbsent(lock, name -> Timer.builder("library.lock.wait")
+                        .tag("lock", name)
+                        .register(meterRegistry))
+                .record(locking);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.library.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class MetricsConfig {
+
+    // Replaces Boot's JpaTransactionManager, so the transaction customizers are applied here as Boot would.
+    @Bean
+    public PlatformTransactionManager transactionManager(MeterRegistry meterRegistry,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        TimedJpaTransactionManager transactionManager = new TimedJpaTransactionManager(meterRegistry);
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+
+    // Registered as an instance so each session factory tags its statements with its own context's SqlProperties.
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspectorCustomizer(SqlProperties sqlProperties) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new SqlStatementInspector(sqlProperties));
+    }
+}
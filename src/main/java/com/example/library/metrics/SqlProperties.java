@@ -0,0 +1,22 @@
+package com.example.library.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.sql")
+public class SqlProperties {
+
+    private boolean responseHeaders;
+
+    private Duration slowThreshold = Duration.ofMillis(100);
+
+    private double sampleRate;
+
+    private int repeatedStatementThreshold = 10;
+
+}
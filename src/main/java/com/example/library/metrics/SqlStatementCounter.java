@@ -0,0 +1,102 @@
+package com.example.library.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// Thread-bound tally of the SQL Hibernate prepares and the JDBC time it spends executing it. Hibernate creates the
+// session listener that feeds it itself, outside the Spring context, so the tally is reached statically. Scopes
+// nest: closing one adds its tally to the scope it was opened in, which lets a test wrap a MockMvc call around the
+// scope the request filter opens.
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final ThreadLocal<Prepared> LAST_STATEMENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    static void prepared(String sql, SqlProperties sqlProperties) {
+        LAST_STATEMENT.set(new Prepared(sql, sqlProperties));
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements++;
+            scope.shapes.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    // Returns the statement the nanos were spent on, as far as it is known.
+    static Prepared executed(long nanos) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.jdbcNanos += nanos;
+        }
+        return LAST_STATEMENT.get();
+    }
+
+    // Pooled threads outlive the request, so the filter drops the statement text once the request is done.
+    static void forgetLastStatement() {
+        LAST_STATEMENT.remove();
+    }
+
+    // A statement with the settings of the session factory that prepared it.
+    record Prepared(String sql, SqlProperties sqlProperties) {
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+
+        // Hibernate renders parameters as placeholders, so repeated executions of one query share one key.
+        private final Map<String, Integer> shapes = new HashMap<>();
+
+        private long statements;
+
+        private long jdbcNanos;
+
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getJdbcNanos() {
+            return jdbcNanos;
+        }
+
+        public Map<String, Integer> getShapes() {
+            return Collections.unmodifiableMap(shapes);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (parent != null) {
+                parent.statements += statements;
+                parent.jdbcNanos += jdbcNanos;
+                shapes.forEach((sql, count) -> parent.shapes.merge(sql, count, Integer::sum));
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.library.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Attributes the SQL issued while a request is handled to its route: library.sql.statements and library.sql.jdbc
+// per uri, plus library.sql.repeated when one statement runs often enough in a single request to suggest an N+1
+// load. Work a request hands to another thread, like a streamed export, is not attributed to it.
+@Slf4j
+@Component
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    private final SqlProperties sqlProperties;
+
+    public SqlStatementFilter(MeterRegistry meterRegistry, SqlProperties sqlProperties) {
+        this.meterRegistry = meterRegistry;
+        this.sqlProperties = sqlProperties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            SqlStatementCounter.forgetLastStatement();
+            record(request, scope);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        meterRegistry.summary("library.sql.statements", "uri", uri).record(scope.getStatements());
+        meterRegistry.timer("library.sql.jdbc", "uri", uri).record(scope.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        for (Map.Entry<String, Integer> shape : scope.getShapes().entrySet()) {
+            if (shape.getValue() >= sqlProperties.getRepeatedStatementThreshold()) {
+                meterRegistry.counter("library.sql.repeated", "uri", uri).increment();
+                log.warn("{} {} ran the same statement {} times, a likely N+1 load: {}",
+                        request.getMethod(), uri, shape.getValue(), shape.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.library.metrics;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.TimeUnit;
+
+// Adds the request's SQL tally as X-Sql-Statements and X-Sql-Time-Micros when library.sql.response-headers is on.
+// Headers have to be set before the body is written, so this runs as body advice rather than in the filter.
+@ControllerAdvice
+public class SqlStatementHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+
+    public static final String TIME_HEADER = "X-Sql-Time-Micros";
+
+    private final SqlProperties sqlProperties;
+
+    public SqlStatementHeaderAdvice(SqlProperties sqlProperties) {
+        this.sqlProperties = sqlProperties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return sqlProperties.isResponseHeaders();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.current();
+        if (scope != null) {
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(scope.getStatements()));
+            response.getHeaders().set(TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMicros(scope.getJdbcNanos())));
+        }
+        return body;
+    }
+}
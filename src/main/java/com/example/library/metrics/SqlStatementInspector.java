@@ -0,0 +1,18 @@
+package com.example.library.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class SqlStatementInspector implements StatementInspector {
+
+    private final SqlProperties sqlProperties;
+
+    public SqlStatementInspector(SqlProperties sqlProperties) {
+        this.sqlProperties = sqlProperties;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementCounter.prepared(sql, sqlProperties);
+        return sql;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.library.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.BaseSessionEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Times JDBC executions for SqlStatementCounter and logs only the statements that are slow or fall into the sample,
+// in place of show-sql printing every one. Hibernate creates one listener per session from its class name, so the
+// thresholds come with the statement from the inspector of the session factory that prepared it.
+@Slf4j
+public class SqlTimingListener extends BaseSessionEventListener {
+
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        finish();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        finish();
+    }
+
+    private void finish() {
+        long nanos = System.nanoTime() - startedAt;
+        SqlStatementCounter.Prepared prepared = SqlStatementCounter.executed(nanos);
+        if (prepared == null) {
+            return;
+        }
+        SqlProperties sqlProperties = prepared.sqlProperties();
+        double sampleRate = sqlProperties.getSampleRate();
+        if (nanos >= sqlProperties.getSlowThreshold().toNanos()) {
+            log.warn("Slow SQL ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(nanos), prepared.sql());
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Sampled SQL ({} us): {}", TimeUnit.NANOSECONDS.toMicros(nanos), prepared.sql());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.library.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Times physical transactions only; joining an existing one does not call doBegin, so nesting is not counted twice.
+public class TimedJpaTransactionManager extends JpaTransactionManager {
+
+    private final Timer committed;
+
+    private final Timer rolledBack;
+
+    private final Map<Object, Started> started = new ConcurrentHashMap<>();
+
+    public TimedJpaTransactionManager(MeterRegistry meterRegistry) {
+        this.committed = meterRegistry.timer("library.transaction", "outcome", "commit");
+        this.rolledBack = meterRegistry.timer("library.transaction", "outcome", "rollback");
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        long startedAt = System.nanoTime();
+        super.doBegin(transaction, definition);
+        started.put(transaction, new Started(startedAt));
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        Started transaction = started.get(status.getTransaction());
+        if (transaction != null) {
+            transaction.rolledBack = true;
+        }
+        super.doRollback(status);
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            Started begun = started.remove(transaction);
+            if (begun != null) {
+                Timer timer = begun.rolledBack ? rolledBack : committed;
+                timer.record(System.nanoTime() - begun.startedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private static final class Started {
+
+        private final long startedAt;
+
+        private volatile boolean rolledBack;
+
+        private Started(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.library.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position after the last row of a page: the value of the sort column plus the id as tie-breaker.
+// Encoded as base64url so clients treat it as opaque.
+@Getter
+@AllArgsConstructor
+public class Cursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private final String sort;
+
+    private final String value;
+
+    private final long id;
+
+    public static Cursor first(String sort) {
+        return new Cursor(sort, "", 0L);
+    }
+
+    public static Cursor decode(String token, String expectedSort) {
+        if (token == null || token.isEmpty()) {
+            return first(expectedSort);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 3);
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("Cursor does not match sort '" + expectedSort + "'");
+            }
+            return new Cursor(parts[0], parts[2], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + ex.getMessage());
+        }
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
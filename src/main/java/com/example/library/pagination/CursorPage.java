@@ -0,0 +1,34 @@
+package com.example.library.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private final List<T> content;
+
+    private final int size;
+
+    private final boolean hasNext;
+
+    private final String nextCursor;
+
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    // rows is expected to hold up to size + 1 entries; the extra one only signals that another page exists.
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, T> mapper, Function<E, Cursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), size, hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.library.pagination;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.pagination")
+public class PaginationProperties {
+
+    private int defaultSize = 20;
+
+    private int maxSize = 100;
+
+    public int resolveSize(Integer size) {
+        if (size == null) {
+            return defaultSize;
+        }
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxSize);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.library.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Marks one page of a catalog listing, offset or cursor based, together with how many rows it returned.
+@Name("library.CatalogListing")
+@Label("Catalog Listing")
+@Category({"Library", "Catalog"})
+@StackTrace(false)
+public class CatalogListingEvent extends Event {
+
+    @Label("Catalog")
+    String catalog;
+
+    @Label("Paging")
+    String paging;
+
+    @Label("Rows")
+    int rows;
+
+    public static CatalogListingEvent start(String catalog, String paging) {
+        CatalogListingEvent event = new CatalogListingEvent();
+        event.begin();
+        event.catalog = catalog;
+        event.paging = paging;
+        return event;
+    }
+
+    public void finish(int rows) {
+        this.rows = rows;
+        commit();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.library.profiling;
+
+import com.example.library.profiling.model.ProfilingSummaryDto;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// GET /actuator/jfr returns the rolling summary of hot methods, allocation and lock hot spots, GC pauses and library
+// operations; GET /actuator/jfr/dump?minutes=5 downloads the last minutes of the continuous recording as a .jfr file
+// for JDK Mission Control or the jfr tool. The dump answers 404 while profiling is off.
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private static final int DEFAULT_DUMP_MINUTES = 5;
+
+    private final FlightRecorderService flightRecorderService;
+
+    public FlightRecorderEndpoint(FlightRecorderService flightRecorderService) {
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    @ReadOperation
+    public ProfilingSummaryDto summary() {
+        return flightRecorderService.summary();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource dump(@Selector String action, @Nullable Integer minutes) {
+        if (!"dump".equals(action)) {
+            return null;
+        }
+        int window = minutes != null ? Math.max(1, minutes) : DEFAULT_DUMP_MINUTES;
+        Path dump = flightRecorderService.dump(Duration.ofMinutes(window));
+        return dump != null ? new FileSystemResource(dump) : null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.library.profiling;
+
+import com.example.library.LibraryApplication;
+import com.example.library.profiling.model.ProfilingSummaryDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Continuous JDK Flight Recorder session, started with the application when library.profiling.enabled is set. Two
+// recordings run side by side: a disk-backed one with the chosen JDK settings that keeps the last max-age of data for
+// dumps, and an event stream that folds execution samples, allocation samples, lock waits, GC pauses and the
+// library's own events into a rolling summary as they arrive, so the hot spots can be read without opening a dump.
+@Slf4j
+@Component
+public class FlightRecorderService {
+
+    private static final String APPLICATION_PACKAGE = LibraryApplication.class.getPackageName() + ".";
+
+    private static final Duration STREAM_RETENTION = Duration.ofMinutes(1);
+
+    private final ProfilingProperties profilingProperties;
+
+    private final RollingProfile profile;
+
+    private Recording recording;
+
+    private RecordingStream stream;
+
+    private Path lastDump;
+
+    public FlightRecorderService(ProfilingProperties profilingProperties) {
+        this.profilingProperties = profilingProperties;
+        this.profile = new RollingProfile(profilingProperties.getSummaryWindow());
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (!profilingProperties.isEnabled() || recording != null) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Flight Recorder is not available in this JVM, continuous profiling stays off");
+            return;
+        }
+        recording = startRecording();
+        stream = startStream();
+        log.info("Continuous Flight Recorder session started with '{}' settings, keeping {} or {}",
+                profilingProperties.getSettings(), profilingProperties.getMaxAge(), profilingProperties.getMaxSize());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    public ProfilingSummaryDto summary() {
+        return profile.summarize(Instant.now(), profilingProperties.getTopFrames(), isRecording());
+    }
+
+    // Writes the last part of the continuous recording to the dump directory and returns the file, or null when
+    // nothing is being recorded. A copy of the recording is stopped to close its current chunk, so the dump reaches
+    // up to now; the data comes in whole chunks and may start a little before the requested window. Only the newest
+    // dump is kept on disk.
+    public synchronized Path dump(Duration last) {
+        if (recording == null) {
+            return null;
+        }
+        try {
+            Path directory = Path.of(profilingProperties.getDumpDirectory());
+            Files.createDirectories(directory);
+            Path target = directory.resolve("library-" + System.currentTimeMillis() + ".jfr");
+            try (Recording snapshot = recording.copy(true);
+                 InputStream data = snapshot.getStream(Instant.now().minus(last), null)) {
+                if (data == null) {
+                    return null;
+                }
+                Files.copy(data, target);
+            }
+            if (lastDump != null && !lastDump.equals(target)) {
+                Files.deleteIfExists(lastDump);
+            }
+            lastDump = target;
+            return target;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not dump the flight recording", ex);
+        }
+    }
+
+    private Recording startRecording() {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(profilingProperties.getSettings());
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("Unknown Flight Recorder settings '"
+                    + profilingProperties.getSettings() + "'", ex);
+        }
+        Recording continuous = new Recording(configuration);
+        continuous.setName("library-continuous");
+        continuous.setToDisk(true);
+        continuous.setMaxAge(profilingProperties.getMaxAge());
+        continuous.setMaxSize(profilingProperties.getMaxSize().toBytes());
+        continuous.enable(RentalBookingEvent.class);
+        continuous.enable(CatalogListingEvent.class);
+        continuous.start();
+        return continuous;
+    }
+
+    private RecordingStream startStream() {
+        Duration lockThreshold = profilingProperties.getLockThreshold();
+        RecordingStream events = new RecordingStream();
+        events.setMaxAge(STREAM_RETENTION);
+        events.enable("jdk.ExecutionSample").withPeriod(profilingProperties.getExecutionSamplePeriod());
+        events.enable("jdk.ObjectAllocationSample").with("throttle", "150/s");
+        events.enable("jdk.JavaMonitorEnter").withThreshold(lockThreshold).withStackTrace();
+        events.enable("jdk.ThreadPark").withThreshold(lockThreshold).withStackTrace();
+        events.enable("jdk.GarbageCollection");
+        events.enable(RentalBookingEvent.class);
+        events.enable(CatalogListingEvent.class);
+
+        events.onEvent("jdk.ExecutionSample", event ->
+                profile.executionSample(event.getStartTime(), frame(event, false)));
+        events.onEvent("jdk.ObjectAllocationSample", event ->
+                profile.allocation(event.getStartTime(), frame(event, true), event.getLong("weight")));
+        events.onEvent("jdk.JavaMonitorEnter", event ->
+                profile.lockWait(event.getStartTime(), frame(event, true), event.getDuration()));
+        events.onEvent("jdk.ThreadPark", event ->
+                profile.lockWait(event.getStartTime(), frame(event, true), event.getDuration()));
+        events.onEvent("jdk.GarbageCollection", event ->
+                profile.gcPause(event.getStartTime(), event.getDuration("sumOfPauses"),
+                        event.getDuration("longestPause")));
+        events.onEvent("library.RentalBooking", event ->
+                profile.operation(event.getStartTime(), event.getEventType().getName(), event.getDuration()));
+        events.onEvent("library.CatalogListing", event ->
+                profile.operation(event.getStartTime(), event.getEventType().getName(), event.getDuration()));
+        events.startAsync();
+        return events;
+    }
+
+    // Hot methods are charged to the top frame, where the samples actually land. Allocations and lock waits mostly
+    // land inside the JDK, so those are charged to the nearest application frame that led there when there is one.
+    private static String frame(RecordedEvent event, boolean preferApplication) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        if (preferApplication) {
+            for (RecordedFrame frame : frames) {
+                if (frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                    return name(frame);
+                }
+            }
+        }
+        return name(frames.get(0));
+    }
+
+    private static String name(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.library.profiling;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.profiling")
+public class ProfilingProperties {
+
+    private boolean enabled;
+
+    // Name of a JFR configuration shipped with the JDK: "default" stays around one percent overhead, "profile" samples
+    // more often and costs more.
+    private String settings = "default";
+
+    private Duration maxAge = Duration.ofMinutes(30);
+
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    private Duration summaryWindow = Duration.ofMinutes(5);
+
+    private Duration executionSamplePeriod = Duration.ofMillis(20);
+
+    private Duration lockThreshold = Duration.ofMillis(10);
+
+    private int topFrames = 20;
+
+    private String dumpDirectory = System.getProperty("java.io.tmpdir");
+
+}
@@ -0,0 +1,42 @@
+package com.example.library.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Marks one booking on the rental path so a recording shows which stalls, allocations and lock waits happened while a
+// booking was in flight. When no recording has the event enabled, begin and commit compile down to almost nothing.
+@Name("library.RentalBooking")
+@Label("Rental Booking")
+@Category({"Library", "Rentals"})
+@StackTrace(false)
+public class RentalBookingEvent extends Event {
+
+    @Label("Client Id")
+    long clientId;
+
+    @Label("Book Id")
+    long bookId;
+
+    @Label("Booking Mode")
+    String mode;
+
+    @Label("Booked")
+    boolean booked;
+
+    public static RentalBookingEvent start(Long clientId, Long bookId, String mode) {
+        RentalBookingEvent event = new RentalBookingEvent();
+        event.begin();
+        event.clientId = clientId != null ? clientId : 0;
+        event.bookId = bookId != null ? bookId : 0;
+        event.mode = mode;
+        return event;
+    }
+
+    public void finish(boolean booked) {
+        this.booked = booked;
+        commit();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.library.profiling;
+
+import com.example.library.profiling.model.GcSummaryDto;
+import com.example.library.profiling.model.HotspotDto;
+import com.example.library.profiling.model.OperationSummaryDto;
+import com.example.library.profiling.model.ProfilingSummaryDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// What the event stream has seen over the summary window, kept in one-minute buckets that are reused in a ring, so an
+// old minute drops out simply by its bucket being reset for a new one. The stream's thread records and the endpoint
+// reads; both take the same monitor, which the stream thread holds for a map update or two per event.
+class RollingProfile {
+
+    private static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Comparator<HotspotDto> BY_VALUE =
+            Comparator.comparingLong(HotspotDto::getValue).reversed().thenComparing(HotspotDto::getFrame);
+
+    private final Bucket[] buckets;
+
+    RollingProfile(Duration window) {
+        int count = (int) Math.max(1, (window.toMillis() + BUCKET_MILLIS - 1) / BUCKET_MILLIS);
+        buckets = new Bucket[count];
+        for (int i = 0; i < count; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    synchronized void executionSample(Instant at, String frame) {
+        Bucket bucket = bucket(at);
+        bucket.executionSamples++;
+        bucket.hotMethods.merge(frame, 1L, Long::sum);
+    }
+
+    synchronized void allocation(Instant at, String frame, long bytes) {
+        bucket(at).allocationBytes.merge(frame, bytes, Long::sum);
+    }
+
+    synchronized void lockWait(Instant at, String frame, Duration wait) {
+        bucket(at).lockWaitMicros.merge(frame, micros(wait), Long::sum);
+    }
+
+    synchronized void gcPause(Instant at, Duration sumOfPauses, Duration longestPause) {
+        Bucket bucket = bucket(at);
+        bucket.collections++;
+        bucket.totalPauseMicros += micros(sumOfPauses);
+        bucket.longestPauseMicros = Math.max(bucket.longestPauseMicros, micros(longestPause));
+    }
+
+    synchronized void operation(Instant at, String name, Duration duration) {
+        long[] stats = bucket(at).operations.computeIfAbsent(name, key -> new long[3]);
+        long durationMicros = micros(duration);
+        stats[0]++;
+        stats[1] += durationMicros;
+        stats[2] = Math.max(stats[2], durationMicros);
+    }
+
+    synchronized ProfilingSummaryDto summarize(Instant now, int topFrames, boolean recording) {
+        long currentMinute = now.toEpochMilli() / BUCKET_MILLIS;
+        long firstMinute = currentMinute - buckets.length + 1;
+        Map<String, Long> hotMethods = new HashMap<>();
+        Map<String, Long> allocationBytes = new HashMap<>();
+        Map<String, Long> lockWaitMicros = new HashMap<>();
+        Map<String, OperationSummaryDto> operations = new TreeMap<>();
+        GcSummaryDto gc = new GcSummaryDto();
+        long executionSamples = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.minute < firstMinute) {
+                continue;
+            }
+            executionSamples += bucket.executionSamples;
+            bucket.hotMethods.forEach((frame, samples) -> hotMethods.merge(frame, samples, Long::sum));
+            bucket.allocationBytes.forEach((frame, bytes) -> allocationBytes.merge(frame, bytes, Long::sum));
+            bucket.lockWaitMicros.forEach((frame, wait) -> lockWaitMicros.merge(frame, wait, Long::sum));
+            gc.setCollections(gc.getCollections() + bucket.collections);
+            gc.setTotalPauseMicros(gc.getTotalPauseMicros() + bucket.totalPauseMicros);
+            gc.setLongestPauseMicros(Math.max(gc.getLongestPauseMicros(), bucket.longestPauseMicros));
+            bucket.operations.forEach((name, stats) -> {
+                OperationSummaryDto summary = operations.computeIfAbsent(name, key -> new OperationSummaryDto());
+                summary.setCount(summary.getCount() + stats[0]);
+                summary.setTotalMicros(summary.getTotalMicros() + stats[1]);
+                summary.setMaxMicros(Math.max(summary.getMaxMicros(), stats[2]));
+            });
+        }
+        return new ProfilingSummaryDto(recording, Instant.ofEpochMilli(firstMinute * BUCKET_MILLIS), now,
+                executionSamples, top(hotMethods, topFrames), top(allocationBytes, topFrames),
+                top(lockWaitMicros, topFrames), gc, operations);
+    }
+
+    // Events arrive about a second behind and in rough time order; one that belongs to a minute whose bucket has
+    // already moved on is counted in the newer minute rather than resetting the bucket back.
+    private Bucket bucket(Instant at) {
+        long minute = at.toEpochMilli() / BUCKET_MILLIS;
+        Bucket bucket = buckets[(int) Math.floorMod(minute, (long) buckets.length)];
+        if (minute > bucket.minute) {
+            bucket.reset(minute);
+        }
+        return bucket;
+    }
+
+    private static List<HotspotDto> top(Map<String, Long> values, int limit) {
+        return values.entrySet().stream()
+                .map(entry -> new HotspotDto(entry.getKey(), entry.getValue()))
+                .sorted(BY_VALUE)
+                .limit(limit)
+                .toList();
+    }
+
+    private static long micros(Duration duration) {
+        return duration != null ? TimeUnit.NANOSECONDS.toMicros(duration.toNanos()) : 0;
+    }
+
+    private static final class Bucket {
+
+        private final Map<String, Long> hotMethods = new HashMap<>();
+        private final Map<String, Long> allocationBytes = new HashMap<>();
+        private final Map<String, Long> lockWaitMicros = new HashMap<>();
+        private final Map<String, long[]> operations = new HashMap<>();
+        private long minute = Long.MIN_VALUE;
+        private long executionSamples;
+        private long collections;
+        private long totalPauseMicros;
+        private long longestPauseMicros;
+
+        private void reset(long minute) {
+            this.minute = minute;
+            hotMethods.clear();
+            allocationBytes.clear();
+            lockWaitMicros.clear();
+            operations.clear();
+            executionSamples = 0;
+            collections = 0;
+            totalPauseMicros = 0;
+            longestPauseMicros = 0;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.library.profiling.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class HotspotDto {
+
+    private String frame;
+    private long value;
+
+}
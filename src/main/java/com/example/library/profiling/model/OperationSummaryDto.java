@@ -0,0 +1,18 @@
+package com.example.library.profiling.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class OperationSummaryDto {
+
+    private long count;
+    private long totalMicros;
+    private long maxMicros;
+
+}
@@ -0,0 +1,28 @@
+package com.example.library.profiling.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ProfilingSummaryDto {
+
+    private boolean recording;
+    private Instant from;
+    private Instant to;
+    private long executionSamples;
+    private List<HotspotDto> hotMethods;
+    private List<HotspotDto> allocationBytes;
+    private List<HotspotDto> lockWaitMicros;
+    private GcSummaryDto gc;
+    private Map<String, OperationSummaryDto> operations;
+
+}
@@ -0,0 +1,9 @@
+package com.example.library.rental;
+
+public enum BookingMode {
+
+    PESSIMISTIC,
+    OPTIMISTIC,
+    QUEUED
+
+}
@@ -0,0 +1,166 @@
+package com.example.library.rental;
+
+import com.example.library.rental.model.OverdueScanReportDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The fee is recomputed from the end date, so re-running a scan for the same date changes nothing.
+@Component
+public class OverdueScanner {
+
+    private static final String CANDIDATES = "SELECT id, end_date FROM rentals " +
+            "WHERE returned = false AND end_date < ? " +
+            "AND (fee_accrued_until IS NULL OR fee_accrued_until < ?) AND late_fee < ?";
+
+    private static final String ACCRUE = "UPDATE rentals SET late_fee = ?, fee_accrued_until = ?, version = version + 1 " +
+            "WHERE id = ? AND returned = false";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RentalProperties rentalProperties;
+
+    private final ForkJoinPool pool;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong lastRunRows = new AtomicLong();
+
+    private final Timer runs;
+
+    private final Counter scannedRows;
+
+    private final Counter updatedRows;
+
+    public OverdueScanner(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          RentalProperties rentalProperties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rentalProperties = rentalProperties;
+        this.pool = new ForkJoinPool(rentalProperties.getOverdue().getParallelism());
+        this.runs = meterRegistry.timer("library.rental.overdue.runs");
+        this.scannedRows = meterRegistry.counter("library.rental.overdue.rows", "stage", "scanned");
+        this.updatedRows = meterRegistry.counter("library.rental.overdue.rows", "stage", "updated");
+        meterRegistry.gauge("library.rental.overdue.last.run.rows", lastRunRows);
+    }
+
+    @Scheduled(cron = "${library.rental.overdue.cron:0 15 0 * * *}")
+    public void scheduledScan() {
+        if (rentalProperties.getOverdue().isEnabled()) {
+            scan(LocalDate.now());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public OverdueScanReportDto scan(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An overdue scan is already running");
+        }
+        try {
+            long startedAt = System.nanoTime();
+            RentalProperties.Overdue overdue = rentalProperties.getOverdue();
+            long[] totals = new long[2];
+            List<Overdue> chunk = new ArrayList<>(overdue.getChunkSize());
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(CANDIDATES);
+                statement.setFetchSize(overdue.getChunkSize());
+                statement.setDate(1, Date.valueOf(today));
+                statement.setDate(2, Date.valueOf(today));
+                statement.setBigDecimal(3, overdue.getMaxFee());
+                return statement;
+            }, resultSet -> {
+                chunk.add(new Overdue(resultSet.getLong(1), resultSet.getDate(2).toLocalDate()));
+                if (chunk.size() >= overdue.getChunkSize()) {
+                    totals[0] += chunk.size();
+                    totals[1] += pool.invoke(new AccrualTask(chunk.toArray(Overdue[]::new), 0, chunk.size(), today));
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                totals[0] += chunk.size();
+                totals[1] += pool.invoke(new AccrualTask(chunk.toArray(Overdue[]::new), 0, chunk.size(), today));
+            }
+
+            long durationNanos = System.nanoTime() - startedAt;
+            runs.record(durationNanos, TimeUnit.NANOSECONDS);
+            scannedRows.increment(totals[0]);
+            updatedRows.increment(totals[1]);
+            lastRunRows.set(totals[0]);
+            return new OverdueScanReportDto(today, totals[0], totals[1], TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public BigDecimal feeFor(LocalDate end, LocalDate asOf) {
+        RentalProperties.Overdue overdue = rentalProperties.getOverdue();
+        long days = Math.max(0, ChronoUnit.DAYS.between(end, asOf));
+        return overdue.getDailyFee().multiply(BigDecimal.valueOf(days))
+                .min(overdue.getMaxFee())
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private int accrue(Overdue[] rentals, int from, int to, LocalDate today) {
+        List<Object[]> updates = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            updates.add(new Object[]{feeFor(rentals[i].end, today), Date.valueOf(today), rentals[i].id});
+        }
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(ACCRUE, updates));
+        return Arrays.stream(counts).map(count -> Math.max(count, 0)).sum();
+    }
+
+    private record Overdue(long id, LocalDate end) {
+    }
+
+    private final class AccrualTask extends RecursiveTask<Integer> {
+
+        private final Overdue[] rentals;
+        private final int from;
+        private final int to;
+        private final LocalDate today;
+
+        private AccrualTask(Overdue[] rentals, int from, int to, LocalDate today) {
+            this.rentals = rentals;
+            this.from = from;
+            this.to = to;
+            this.today = today;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= rentalProperties.getOverdue().getBatchSize()) {
+                return accrue(rentals, from, to, today);
+            }
+            int middle = (from + to) >>> 1;
+            AccrualTask left = new AccrualTask(rentals, from, middle, today);
+            left.fork();
+            return new AccrualTask(rentals, middle, to, today).compute() + left.join();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.library.rental;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.Book;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.exception.BookingConflictException;
+import com.example.library.exception.ResourceNotFoundException;
+import com.example.library.metrics.LockWaitTimers;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.example.library.rental.model.Rental;
+import com.example.library.rental.model.RentalDto;
+import com.example.library.rental.model.RentalMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(prefix = "library.rental", name = "booking-mode", havingValue = "queued")
+public class RentalBookingQueue {
+
+    private final RentalRepository rentalRepository;
+
+    private final ClientRepository clientRepository;
+
+    private final BookRepository bookRepository;
+
+    private final RentalMapper rentalMapper;
+
+    private final RentalOverlapChecker rentalOverlapChecker;
+
+    private final RentalProperties rentalProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LockWaitTimers lockWaitTimers;
+
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    private volatile boolean closed;
+
+    public RentalBookingQueue(RentalRepository rentalRepository, ClientRepository clientRepository,
+                              BookRepository bookRepository, RentalMapper rentalMapper,
+                              RentalOverlapChecker rentalOverlapChecker, RentalProperties rentalProperties,
+                              TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                              LockWaitTimers lockWaitTimers) {
+        this.rentalRepository = rentalRepository;
+        this.clientRepository = clientRepository;
+        this.bookRepository = bookRepository;
+        this.rentalMapper = rentalMapper;
+        this.rentalOverlapChecker = rentalOverlapChecker;
+        this.rentalProperties = rentalProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.lockWaitTimers = lockWaitTimers;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rental-booking-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(rentalProperties.getQueue().getWorkers(), threadFactory);
+    }
+
+    public CompletableFuture<RentalDto> submit(CreateRentalCommand createRentalCommand) {
+        Long bookId = createRentalCommand.getBookId();
+        if (closed) {
+            return CompletableFuture.failedFuture(shuttingDown());
+        }
+        Mailbox mailbox = mailboxes.computeIfAbsent(bookId, id -> new Mailbox());
+        if (mailbox.size.incrementAndGet() > rentalProperties.getQueue().getMaxPendingPerBook()) {
+            mailbox.size.decrementAndGet();
+            meterRegistry.counter("library.rental.queue.rejected").increment();
+            return CompletableFuture.failedFuture(new BookingConflictException(
+                    "Too many pending bookings for book with id " + bookId + ", please try again"));
+        }
+        PendingBooking booking = new PendingBooking(createRentalCommand);
+        mailbox.pending.add(booking);
+        schedule(bookId, mailbox);
+        Duration timeout = rentalProperties.getQueue().getTimeout();
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> expire(booking, timeout));
+        return booking.result;
+    }
+
+    // Only a booking no batch has claimed yet can time out; a claimed one is answered with its commit result.
+    private void expire(PendingBooking booking, Duration timeout) {
+        if (booking.claim()) {
+            meterRegistry.counter("library.rental.queue.timeouts").increment();
+            booking.result.completeExceptionally(new BookingConflictException("Booking of book with id "
+                    + booking.command.getBookId() + " did not complete within " + timeout.toMillis()
+                    + " ms, please try again"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        executor.shutdown();
+        mailboxes.values().forEach(this::failPending);
+        mailboxes.clear();
+    }
+
+    private void schedule(Long bookId, Mailbox mailbox) {
+        if (mailbox.scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(bookId, mailbox));
+            } catch (RejectedExecutionException ex) {
+                mailbox.scheduled.set(false);
+                failPending(mailbox);
+            }
+        }
+    }
+
+    private void drain(Long bookId, Mailbox mailbox) {
+        try {
+            List<PendingBooking> batch = new ArrayList<>();
+            int polled = 0;
+            PendingBooking next;
+            while (batch.size() < rentalProperties.getQueue().getMaxBatchSize()
+                    && (next = mailbox.pending.poll()) != null) {
+                polled++;
+                if (next.claim()) {
+                    batch.add(next);
+                }
+            }
+            mailbox.size.addAndGet(-polled);
+            if (!batch.isEmpty()) {
+                commit(bookId, batch);
+            }
+        } finally {
+            mailbox.scheduled.set(false);
+            if (!mailbox.pending.isEmpty()) {
+                schedule(bookId, mailbox);
+            } else if (mailbox.size.get() == 0) {
+                mailboxes.remove(bookId, mailbox);
+            }
+        }
+    }
+
+    private void failPending(Mailbox mailbox) {
+        PendingBooking booking;
+        while ((booking = mailbox.pending.poll()) != null) {
+            mailbox.size.decrementAndGet();
+            if (booking.claim()) {
+                booking.result.completeExceptionally(shuttingDown());
+            }
+        }
+    }
+
+    private static BookingConflictException shuttingDown() {
+        return new BookingConflictException("The booking queue is shutting down, please try again");
+    }
+
+    private void commit(Long bookId, List<PendingBooking> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> bookBatch(bookId, batch));
+        } catch (RuntimeException ex) {
+            batch.forEach(booking -> booking.result.completeExceptionally(
+                    booking.failure != null ? booking.failure : ex));
+            return;
+        }
+        meterRegistry.summary("library.rental.queue.batch.size").record(batch.size());
+        batch.forEach(PendingBooking::complete);
+    }
+
+    private void bookBatch(Long bookId, List<PendingBooking> batch) {
+        Optional<Book> lockedBook = lockWaitTimers.acquire("book", () -> bookRepository.findByIdForWrite(bookId));
+        if (lockedBook.isEmpty()) {
+            batch.forEach(booking -> booking.failure = new ResourceNotFoundException("Book", "id", bookId));
+            return;
+        }
+        Book book = lockedBook.get();
+        if (!book.isAvailable()) {
+            batch.forEach(booking -> booking.failure =
+                    new IllegalStateException("Book with id " + bookId + " is not available"));
+            return;
+        }
+
+        List<Long> clientIds = batch.stream().map(booking -> booking.command.getClientId()).distinct().toList();
+        Map<Long, Client> clients = clientRepository.findAllById(clientIds).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+
+        List<Rental> accepted = new ArrayList<>();
+        List<PendingBooking> acceptedBookings = new ArrayList<>();
+        for (PendingBooking booking : batch) {
+            CreateRentalCommand command = booking.command;
+            Client client = clients.get(command.getClientId());
+            if (client == null) {
+                booking.failure = new ResourceNotFoundException("Client", "id", command.getClientId());
+            } else if (overlapsAccepted(accepted, command)
+                    || rentalOverlapChecker.isBookedInPeriod(bookId, command.getStart(), command.getEnd())) {
+                booking.failure = new IllegalStateException(
+                        "Book with id " + bookId + " is not available in the given period");
+            } else {
+                Rental rental = new Rental();
+                rental.setClient(client);
+                rental.setBook(book);
+                rental.setStart(command.getStart());
+                rental.setEnd(command.getEnd());
+                rental.setReturned(false);
+                accepted.add(rental);
+                acceptedBookings.add(booking);
+            }
+        }
+
+        List<Rental> saved = rentalRepository.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            rentalOverlapChecker.rentalBooked(saved.get(i));
+            acceptedBookings.get(i).rental = rentalMapper.mapToDto(saved.get(i));
+        }
+    }
+
+    private static boolean overlapsAccepted(List<Rental> accepted, CreateRentalCommand command) {
+        return accepted.stream().anyMatch(rental ->
+                !rental.getStart().isAfter(command.getEnd()) && !rental.getEnd().isBefore(command.getStart()));
+    }
+
+    private static final class Mailbox {
+
+        private final Queue<PendingBooking> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    }
+
+    private static final class PendingBooking {
+
+        private final CreateRentalCommand command;
+
+        private final CompletableFuture<RentalDto> result = new CompletableFuture<>();
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private RentalDto rental;
+
+        private RuntimeException failure;
+
+        private PendingBooking(CreateRentalCommand command) {
+            this.command = command;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        private void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(rental);
+            }
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.example.library.rental;
 
+import com.example.library.bulk.ImportFormat;
 import com.example.library.rental.model.CreateRentalCommand;
+import com.example.library.rental.model.RentalBatchResultDto;
 import com.example.library.rental.model.RentalDto;
+import com.example.library.rental.model.RentalReturnResultDto;
+import com.example.library.pagination.CursorPage;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @AllArgsConstructor
@@ -22,6 +30,18 @@ public class RentalController {
         return new ResponseEntity<>(createdRental, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<RentalBatchResultDto> createRentals(@RequestBody List<CreateRentalCommand> createRentalCommands) {
+        RentalBatchResultDto result = rentalService.createRentals(createRentalCommands);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PutMapping("/return")
+    public ResponseEntity<RentalReturnResultDto> returnRentals(@RequestBody List<Long> ids) {
+        RentalReturnResultDto result = rentalService.returnRentals(ids);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     @PutMapping("/{id}/return")
     public ResponseEntity<RentalDto> returnRental(@PathVariable Long id) {
         RentalDto returnedRental = rentalService.returnRental(id);
@@ -29,9 +49,21 @@ public class RentalController {
     }
 
     @GetMapping("/client/{id}/rentals")
-    public ResponseEntity<List<RentalDto>> getClientRentals(@PathVariable("id") Long clientId) {
-        List<RentalDto> rentals = rentalService.getClientRentals(clientId);
+    public ResponseEntity<CursorPage<RentalDto>> getClientRentals(
+            @PathVariable("id") Long clientId,
+            @RequestParam(required = false) Boolean returned,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<RentalDto> rentals = rentalService.getClientRentals(clientId, returned, from, to, after, size);
         return new ResponseEntity<>(rentals, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/export", produces = ImportFormat.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRentals(@RequestParam(defaultValue = "0") Long since) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ImportFormat.NDJSON_VALUE))
+                .body(rentalService.exportRentals(since));
+    }
 }
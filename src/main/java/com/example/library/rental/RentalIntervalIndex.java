@@ -0,0 +1,276 @@
+package com.example.library.rental;
+
+import com.example.library.rental.model.RentalPeriod;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+@Component
+public class RentalIntervalIndex {
+
+    private final RentalRepository rentalRepository;
+
+    private final RentalProperties rentalProperties;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, BookIntervals> intervalsByBook = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return rentalProperties.getOverlapIndex().isEnabled();
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!isEnabled()) {
+            return;
+        }
+        reload();
+    }
+
+    public void reload() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            intervalsByBook.clear();
+            try (Stream<RentalPeriod> periods = rentalRepository.streamActivePeriods()) {
+                periods.forEach(this::insert);
+            }
+        });
+    }
+
+    public boolean overlaps(Long bookId, LocalDate start, LocalDate end) {
+        if (pending() != null) {
+            return !periods(bookId, start, end).isEmpty();
+        }
+        BookIntervals intervals = intervalsByBook.get(bookId);
+        return intervals != null && intervals.overlaps(toDay(start), toDay(end));
+    }
+
+    public List<RentalPeriod> periods(Long bookId, LocalDate start, LocalDate end) {
+        BookIntervals intervals = intervalsByBook.get(bookId);
+        List<RentalPeriod> committed = intervals == null
+                ? List.of()
+                : intervals.periods(bookId, toDay(start), toDay(end));
+        Pending pending = pending();
+        if (pending == null) {
+            return committed;
+        }
+        List<RentalPeriod> periods = new ArrayList<>();
+        for (RentalPeriod period : committed) {
+            if (!pending.removes(period)) {
+                periods.add(period);
+            }
+        }
+        for (RentalPeriod period : pending.added) {
+            if (period.getBookId().equals(bookId) && !pending.removes(period)
+                    && !period.getStart().isAfter(end) && !period.getEnd().isBefore(start)) {
+                periods.add(period);
+            }
+        }
+        periods.sort(Comparator.comparing(RentalPeriod::getStart));
+        return periods;
+    }
+
+    // In a transaction, bookings are published before commit while the book row lock is still held, returns after it.
+    public void add(RentalPeriod period) {
+        Pending pending = pendingOrBind();
+        if (pending == null) {
+            insert(period);
+        } else {
+            pending.added.add(period);
+        }
+    }
+
+    public void remove(RentalPeriod period) {
+        Pending pending = pendingOrBind();
+        if (pending == null) {
+            delete(period);
+        } else {
+            pending.removed.add(period);
+        }
+    }
+
+    private void insert(RentalPeriod period) {
+        int start = toDay(period.getStart());
+        int end = toDay(period.getEnd());
+        intervalsByBook.compute(period.getBookId(), (bookId, current) -> current == null
+                ? BookIntervals.single(period.getId(), start, end)
+                : current.with(period.getId(), start, end));
+    }
+
+    private void delete(RentalPeriod period) {
+        intervalsByBook.computeIfPresent(period.getBookId(), (bookId, current) -> current.without(period.getId()));
+    }
+
+    private Pending pending() {
+        return (Pending) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private Pending pendingOrBind() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending pending = pending();
+        if (pending != null) {
+            return pending;
+        }
+        Pending created = new Pending();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                created.added.forEach(RentalIntervalIndex.this::insert);
+                created.published = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                created.removed.forEach(RentalIntervalIndex.this::delete);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(RentalIntervalIndex.this);
+                if (status != STATUS_COMMITTED && created.published) {
+                    created.added.forEach(RentalIntervalIndex.this::delete);
+                }
+            }
+        });
+        return created;
+    }
+
+    private static int toDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private static final class Pending {
+
+        private final List<RentalPeriod> added = new ArrayList<>();
+        private final List<RentalPeriod> removed = new ArrayList<>();
+        private boolean published;
+
+        private boolean removes(RentalPeriod period) {
+            for (RentalPeriod removedPeriod : removed) {
+                if (removedPeriod.getId().equals(period.getId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Intervals of one book sorted by start day; maxEnds[i] is the latest end among the first i + 1 intervals,
+    // so "any interval with start <= end and end >= start" is a single binary search.
+    private static final class BookIntervals {
+
+        private final long[] ids;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] maxEnds;
+
+        private BookIntervals(long[] ids, int[] starts, int[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new int[ends.length];
+            int maxEnd = Integer.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                maxEnd = Math.max(maxEnd, ends[i]);
+                maxEnds[i] = maxEnd;
+            }
+        }
+
+        static BookIntervals single(long id, int start, int end) {
+            return new BookIntervals(new long[]{id}, new int[]{start}, new int[]{end});
+        }
+
+        boolean overlaps(int start, int end) {
+            int last = lastStartingOnOrBefore(end);
+            return last >= 0 && maxEnds[last] >= start;
+        }
+
+        List<RentalPeriod> periods(Long bookId, int start, int end) {
+            List<RentalPeriod> periods = new ArrayList<>();
+            for (int i = lastStartingOnOrBefore(end); i >= 0 && maxEnds[i] >= start; i--) {
+                if (ends[i] >= start) {
+                    periods.add(new RentalPeriod(ids[i], bookId, LocalDate.ofEpochDay(starts[i]), LocalDate.ofEpochDay(ends[i])));
+                }
+            }
+            Collections.reverse(periods);
+            return periods;
+        }
+
+        BookIntervals with(long id, int start, int end) {
+            int at = lastStartingOnOrBefore(start) + 1;
+            int length = ids.length;
+            long[] newIds = new long[length + 1];
+            int[] newStarts = new int[length + 1];
+            int[] newEnds = new int[length + 1];
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(starts, 0, newStarts, 0, at);
+            System.arraycopy(ends, 0, newEnds, 0, at);
+            newIds[at] = id;
+            newStarts[at] = start;
+            newEnds[at] = end;
+            System.arraycopy(ids, at, newIds, at + 1, length - at);
+            System.arraycopy(starts, at, newStarts, at + 1, length - at);
+            System.arraycopy(ends, at, newEnds, at + 1, length - at);
+            return new BookIntervals(newIds, newStarts, newEnds);
+        }
+
+        BookIntervals without(long id) {
+            int at = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    at = i;
+                    break;
+                }
+            }
+            if (at < 0) {
+                return this;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] newIds = new long[ids.length - 1];
+            int[] newStarts = new int[ids.length - 1];
+            int[] newEnds = new int[ids.length - 1];
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(starts, 0, newStarts, 0, at);
+            System.arraycopy(ends, 0, newEnds, 0, at);
+            System.arraycopy(ids, at + 1, newIds, at, newIds.length - at);
+            System.arraycopy(starts, at + 1, newStarts, at, newStarts.length - at);
+            System.arraycopy(ends, at + 1, newEnds, at, newEnds.length - at);
+            return new BookIntervals(newIds, newStarts, newEnds);
+        }
+
+        private int lastStartingOnOrBefore(int day) {
+            int low = 0;
+            int high = starts.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= day) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+    }
+}
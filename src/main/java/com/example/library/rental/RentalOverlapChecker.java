@@ -0,0 +1,58 @@
+package com.example.library.rental;
+
+import com.example.library.rental.model.Rental;
+import com.example.library.rental.model.RentalBookedEvent;
+import com.example.library.rental.model.RentalPeriod;
+import com.example.library.rental.model.RentalReturnedEvent;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@AllArgsConstructor
+@Component
+public class RentalOverlapChecker {
+
+    private RentalRepository rentalRepository;
+
+    private RentalIntervalIndex rentalIntervalIndex;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    public boolean isBookedInPeriod(Long bookId, LocalDate start, LocalDate end) {
+        if (rentalIntervalIndex.isEnabled()) {
+            return rentalIntervalIndex.overlaps(bookId, start, end);
+        }
+        return rentalRepository.existsByBookIdAndStartLessThanEqualAndEndGreaterThanEqual(bookId, end, start);
+    }
+
+    public Map<Long, List<RentalPeriod>> findBookedPeriods(Collection<Long> bookIds, LocalDate start, LocalDate end) {
+        if (rentalIntervalIndex.isEnabled()) {
+            return bookIds.stream().collect(Collectors.toMap(Function.identity(),
+                    bookId -> rentalIntervalIndex.periods(bookId, start, end)));
+        }
+        return rentalRepository.findActivePeriods(bookIds, start, end).stream()
+                .collect(Collectors.groupingBy(RentalPeriod::getBookId));
+    }
+
+    public void rentalBooked(Rental rental) {
+        RentalPeriod period = RentalPeriod.of(rental);
+        if (rentalIntervalIndex.isEnabled()) {
+            rentalIntervalIndex.add(period);
+        }
+        applicationEventPublisher.publishEvent(new RentalBookedEvent(period));
+    }
+
+    public void rentalReturned(RentalPeriod period) {
+        if (rentalIntervalIndex.isEnabled()) {
+            rentalIntervalIndex.remove(period);
+        }
+        applicationEventPublisher.publishEvent(new RentalReturnedEvent(period));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.library.rental;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.rental")
+public class RentalProperties {
+
+    private BookingMode bookingMode = BookingMode.PESSIMISTIC;
+
+    private Optimistic optimistic = new Optimistic();
+
+    private Queue queue = new Queue();
+
+    private Batch batch = new Batch();
+
+    private OverlapIndex overlapIndex = new OverlapIndex();
+
+    private Overdue overdue = new Overdue();
+
+    @Getter
+    @Setter
+    public static class Optimistic {
+
+        private int maxAttempts = 3;
+
+        private Duration initialBackoff = Duration.ofMillis(5);
+
+        private Duration maxBackoff = Duration.ofMillis(50);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Queue {
+
+        private int workers = Runtime.getRuntime().availableProcessors();
+
+        private int maxBatchSize = 64;
+
+        private int maxPendingPerBook = 1024;
+
+        private Duration timeout = Duration.ofSeconds(10);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        private int maxSize = 1000;
+
+        private int chunkSize = 500;
+
+    }
+
+    @Getter
+    @Setter
+    public static class OverlapIndex {
+
+        private boolean enabled;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Overdue {
+
+        private boolean enabled;
+
+        private BigDecimal dailyFee = new BigDecimal("0.50");
+
+        private BigDecimal maxFee = new BigDecimal("20.00");
+
+        private int chunkSize = 10_000;
+
+        private int batchSize = 500;
+
+        private int parallelism = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    }
+}
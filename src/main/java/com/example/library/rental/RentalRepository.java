@@ -1,26 +1,78 @@
 package com.example.library.rental;
 
 import com.example.library.rental.model.Rental;
+import com.example.library.rental.model.RentalDto;
+import com.example.library.rental.model.RentalPeriod;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface RentalRepository extends JpaRepository<Rental, Long> {
     @Query("SELECT r FROM Rental r WHERE r.client.id = :clientId")
     List<Rental> findByClientId(@Param("clientId") Long clientId);
 
+    @Query("SELECT new com.example.library.rental.model.RentalDto(r.id, r.client.id, r.book.id, r.start, r.end, r.returned, r.lateFee) " +
+            "FROM Rental r WHERE r.client.id = :clientId " +
+            "AND (:returned IS NULL OR r.returned = :returned) AND r.end >= :from AND r.start <= :to " +
+            "AND (r.start < :afterStart OR (r.start = :afterStart AND r.id < :afterId)) " +
+            "ORDER BY r.start DESC, r.id DESC")
+    List<RentalDto> findClientHistory(
+            @Param("clientId") Long clientId,
+            @Param("returned") Boolean returned,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterStart") LocalDate afterStart,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
 
     @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Rental r WHERE r.book.id = :bookId AND " +
-            "(r.start <= :endDate AND r.end >= :startDate) OR " +
-            "(r.start >= :startDate AND r.end <= :endDate)")
+            "r.returned = false AND r.start <= :endDate AND r.end >= :startDate")
     boolean existsByBookIdAndStartLessThanEqualAndEndGreaterThanEqual(
             @Param("bookId") Long bookId,
+            @Param("endDate") LocalDate endDate,
+            @Param("startDate") LocalDate startDate
+    );
+
+    @Query("SELECT new com.example.library.rental.model.RentalPeriod(r.id, r.book.id, r.start, r.end) " +
+            "FROM Rental r WHERE r.book.id IN :bookIds AND r.returned = false " +
+            "AND r.start <= :endDate AND r.end >= :startDate")
+    List<RentalPeriod> findActivePeriods(
+            @Param("bookIds") Collection<Long> bookIds,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate
     );
 
+    @Query("SELECT new com.example.library.rental.model.RentalPeriod(r.id, r.book.id, r.start, r.end) " +
+            "FROM Rental r WHERE r.returned = false")
+    Stream<RentalPeriod> streamActivePeriods();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.library.rental.model.RentalDto(r.id, r.client.id, r.book.id, r.start, r.end, r.returned, r.lateFee) " +
+            "FROM Rental r WHERE r.id > :since ORDER BY r.id")
+    Stream<RentalDto> streamAllAfter(@Param("since") Long since);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.example.library.rental.model.RentalDto(r.id, r.client.id, r.book.id, r.start, r.end, r.returned, r.lateFee) " +
+            "FROM Rental r WHERE r.id IN :ids")
+    List<RentalDto> findAllDtosByIdForWrite(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Rental r SET r.returned = true, r.version = r.version + 1 WHERE r.id IN :ids AND r.returned = false")
+    int markReturned(@Param("ids") Collection<Long> ids);
+
 
 }
@@ -2,24 +2,61 @@ package com.example.library.rental;
 
 import com.example.library.book.BookRepository;
 import com.example.library.book.model.Book;
+import com.example.library.bulk.CatalogExporter;
 import com.example.library.client.ClientRepository;
 import com.example.library.client.model.Client;
+import com.example.library.exception.BookingConflictException;
 import com.example.library.exception.ResourceNotFoundException;
+import com.example.library.metrics.LockWaitTimers;
+import com.example.library.pagination.Cursor;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.PaginationProperties;
+import com.example.library.profiling.RentalBookingEvent;
 import com.example.library.rental.model.CreateRentalCommand;
 import com.example.library.rental.model.Rental;
+import com.example.library.rental.model.RentalBatchItemDto;
+import com.example.library.rental.model.RentalBatchResultDto;
 import com.example.library.rental.model.RentalDto;
 import com.example.library.rental.model.RentalMapper;
+import com.example.library.rental.model.RentalPeriod;
+import com.example.library.rental.model.RentalReturnItemDto;
+import com.example.library.rental.model.RentalReturnResultDto;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
 public class RentalService {
 
+    private static final String HISTORY_SORT = "start";
+
+    private static final LocalDate HISTORY_START = LocalDate.of(1, 1, 1);
+
+    private static final LocalDate HISTORY_END = LocalDate.of(9999, 12, 31);
+
     private RentalRepository rentalRepository;
 
     private ClientRepository clientRepository;
@@ -28,21 +65,81 @@ public class RentalService {
 
     private RentalMapper rentalMapper;
 
-    @Transactional
+    private RentalOverlapChecker rentalOverlapChecker;
+
+    private ObjectProvider<RentalBookingQueue> rentalBookingQueue;
+
+    private RentalProperties rentalProperties;
+
+    private TransactionTemplate transactionTemplate;
+
+    private MeterRegistry meterRegistry;
+
+    private CatalogExporter catalogExporter;
+
+    private PaginationProperties paginationProperties;
+
+    private LockWaitTimers lockWaitTimers;
+
     public RentalDto createRental(CreateRentalCommand createRentalCommand) {
+        BookingMode bookingMode = rentalProperties.getBookingMode();
+        RentalBookingEvent event = RentalBookingEvent.start(createRentalCommand.getClientId(),
+                createRentalCommand.getBookId(), bookingMode.name());
+        boolean booked = false;
+        try {
+            RentalDto rental = switch (bookingMode) {
+                case PESSIMISTIC -> transactionTemplate.execute(status ->
+                        bookRental(createRentalCommand, bookId ->
+                                lockWaitTimers.acquire("book", () -> bookRepository.findByIdForWrite(bookId))));
+                case OPTIMISTIC -> createRentalOptimistically(createRentalCommand);
+                case QUEUED -> awaitQueuedBooking(createRentalCommand);
+            };
+            booked = true;
+            return rental;
+        } finally {
+            event.finish(booked);
+        }
+    }
+
+    private RentalDto createRentalOptimistically(CreateRentalCommand createRentalCommand) {
+        RentalProperties.Optimistic optimistic = rentalProperties.getOptimistic();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status ->
+                        bookRental(createRentalCommand, bookRepository::findByIdForOptimisticWrite));
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= optimistic.getMaxAttempts()) {
+                    meterRegistry.counter("library.rental.booking.conflicts").increment();
+                    throw new BookingConflictException("Book with id " + createRentalCommand.getBookId()
+                            + " is being booked concurrently, please try again");
+                }
+                meterRegistry.counter("library.rental.booking.retries").increment();
+                backOff(attempt, optimistic);
+            }
+        }
+    }
+
+    private RentalDto awaitQueuedBooking(CreateRentalCommand createRentalCommand) {
+        try {
+            return rentalBookingQueue.getObject().submit(createRentalCommand).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private RentalDto bookRental(CreateRentalCommand createRentalCommand, Function<Long, Optional<Book>> bookLoader) {
         Client client = clientRepository.findById(createRentalCommand.getClientId())
                 .orElseThrow(() -> new ResourceNotFoundException("Client", "id", createRentalCommand.getClientId()));
-        Book book = bookRepository.findByIdForWrite(createRentalCommand.getBookId())
+        Book book = bookLoader.apply(createRentalCommand.getBookId())
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "id", createRentalCommand.getBookId()));
 
         if (!book.isAvailable()) {
             throw new IllegalStateException("Book with id " + book.getId() + " is not available");
         }
-        boolean rentalsInGivenPeriod = rentalRepository
-                .existsByBookIdAndStartLessThanEqualAndEndGreaterThanEqual(
-                        book.getId(), createRentalCommand.getEnd(), createRentalCommand.getStart());
-
-        if (rentalsInGivenPeriod) {
+        if (rentalOverlapChecker.isBookedInPeriod(book.getId(), createRentalCommand.getStart(), createRentalCommand.getEnd())) {
             throw new IllegalStateException("Book with id " + book.getId() + " is not available in the given period");
         }
 
@@ -53,20 +150,187 @@ public class RentalService {
         rental.setEnd(createRentalCommand.getEnd());
         rental.setReturned(false);
         rental = rentalRepository.save(rental);
+        rentalOverlapChecker.rentalBooked(rental);
 
         return rentalMapper.mapToDto(rental);
     }
 
+    @Transactional
+    public RentalBatchResultDto createRentals(List<CreateRentalCommand> createRentalCommands) {
+        int maxSize = rentalProperties.getBatch().getMaxSize();
+        if (createRentalCommands.size() > maxSize) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxSize + " rentals");
+        }
+
+        RentalBatchItemDto[] items = new RentalBatchItemDto[createRentalCommands.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < createRentalCommands.size(); i++) {
+            String problem = validate(createRentalCommands.get(i));
+            if (problem != null) {
+                items[i] = RentalBatchItemDto.rejected(i, problem);
+            } else {
+                candidates.add(i);
+            }
+        }
+        List<CreateRentalCommand> commands = candidates.stream().map(createRentalCommands::get).toList();
+        if (commands.isEmpty()) {
+            return RentalBatchResultDto.of(Arrays.asList(items));
+        }
+
+        Set<Long> clientIds = commands.stream().map(CreateRentalCommand::getClientId).collect(Collectors.toSet());
+        Set<Long> bookIds = commands.stream().map(CreateRentalCommand::getBookId).collect(Collectors.toSet());
+        Map<Long, Client> clients = clientRepository.findAllById(clientIds).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        List<Book> lockedBooks = lockWaitTimers.acquire("books", () -> bookRepository.findAllByIdForWrite(bookIds));
+        Map<Long, Book> books = lockedBooks.stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        LocalDate from = commands.stream().map(CreateRentalCommand::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = commands.stream().map(CreateRentalCommand::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<RentalPeriod>> booked = rentalOverlapChecker.findBookedPeriods(books.keySet(), from, to);
+        Map<Long, List<RentalPeriod>> bookedInBatch = new HashMap<>();
+
+        List<Rental> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int candidate : candidates) {
+            CreateRentalCommand command = createRentalCommands.get(candidate);
+            Client client = clients.get(command.getClientId());
+            Book book = books.get(command.getBookId());
+            String problem = null;
+            if (client == null) {
+                problem = new ResourceNotFoundException("Client", "id", command.getClientId()).getMessage();
+            } else if (book == null) {
+                problem = new ResourceNotFoundException("Book", "id", command.getBookId()).getMessage();
+            } else if (!book.isAvailable()) {
+                problem = "Book with id " + book.getId() + " is not available";
+            } else if (overlapsAny(booked.get(book.getId()), command) || overlapsAny(bookedInBatch.get(book.getId()), command)) {
+                problem = "Book with id " + book.getId() + " is not available in the given period";
+            }
+            if (problem != null) {
+                items[candidate] = RentalBatchItemDto.rejected(candidate, problem);
+                continue;
+            }
+
+            Rental rental = new Rental();
+            rental.setClient(client);
+            rental.setBook(book);
+            rental.setStart(command.getStart());
+            rental.setEnd(command.getEnd());
+            rental.setReturned(false);
+            accepted.add(rental);
+            acceptedIndexes.add(candidate);
+            bookedInBatch.computeIfAbsent(book.getId(), id -> new ArrayList<>())
+                    .add(new RentalPeriod(null, book.getId(), command.getStart(), command.getEnd()));
+        }
+
+        List<Rental> saved = rentalRepository.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            rentalOverlapChecker.rentalBooked(saved.get(i));
+            items[acceptedIndexes.get(i)] = RentalBatchItemDto.created(acceptedIndexes.get(i), rentalMapper.mapToDto(saved.get(i)));
+        }
+        return RentalBatchResultDto.of(Arrays.asList(items));
+    }
+
+    private static String validate(CreateRentalCommand command) {
+        if (command.getClientId() == null || command.getBookId() == null) {
+            return "Client id and book id are required";
+        }
+        if (command.getStart() == null || command.getEnd() == null) {
+            return "Rental start and end are required";
+        }
+        if (command.getStart().isAfter(command.getEnd())) {
+            return "Rental start must not be after its end";
+        }
+        return null;
+    }
+
+    private static boolean overlapsAny(List<RentalPeriod> periods, CreateRentalCommand command) {
+        return periods != null && periods.stream().anyMatch(period ->
+                !period.getStart().isAfter(command.getEnd()) && !period.getEnd().isBefore(command.getStart()));
+    }
+
+    private static void backOff(int attempt, RentalProperties.Optimistic optimistic) {
+        long ceiling = Math.min(optimistic.getMaxBackoff().toNanos(),
+                optimistic.getInitialBackoff().toNanos() << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BookingConflictException("Booking was interrupted while waiting to retry");
+        }
+    }
+
 
     public RentalDto returnRental(Long id) {
-        Rental rental = rentalRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Rental", "id", id));
-        rental.setReturned(true);
-        rental = rentalRepository.save(rental);
-        return rentalMapper.mapToDto(rental);
+        RentalReturnItemDto item = transactionTemplate.execute(status -> returnChunk(List.of(id))).get(0);
+        if (item.getStatus() == RentalReturnItemDto.Status.NOT_FOUND) {
+            throw new ResourceNotFoundException("Rental", "id", id);
+        }
+        return item.getRental();
+    }
+
+    // Each chunk commits on its own: its rows are locked, the still-open ones flipped with a single UPDATE, and a
+    // retried request finds them already returned instead of failing.
+    public RentalReturnResultDto returnRentals(List<Long> ids) {
+        RentalProperties.Batch batch = rentalProperties.getBatch();
+        if (ids.size() > batch.getMaxSize()) {
+            throw new IllegalArgumentException("A batch may contain at most " + batch.getMaxSize() + " rentals");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Rental ids are required");
+        }
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        List<RentalReturnItemDto> items = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += batch.getChunkSize()) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + batch.getChunkSize(), distinctIds.size()));
+            items.addAll(transactionTemplate.execute(status -> returnChunk(chunk)));
+        }
+        return RentalReturnResultDto.of(items);
     }
 
-    public List<RentalDto> getClientRentals(Long clientId) {
-        List<Rental> rentals = rentalRepository.findByClientId(clientId);
-        return rentals.stream().map(rentalMapper::mapToDto).collect(Collectors.toList());
+    private List<RentalReturnItemDto> returnChunk(List<Long> ids) {
+        Map<Long, RentalDto> rentals = rentalRepository.findAllDtosByIdForWrite(ids).stream()
+                .collect(Collectors.toMap(RentalDto::getId, Function.identity()));
+        List<Long> open = rentals.values().stream().filter(rental -> !rental.isReturned()).map(RentalDto::getId).toList();
+        if (!open.isEmpty()) {
+            rentalRepository.markReturned(open);
+        }
+
+        List<RentalReturnItemDto> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            RentalDto rental = rentals.get(id);
+            if (rental == null) {
+                items.add(RentalReturnItemDto.notFound(id));
+            } else if (rental.isReturned()) {
+                items.add(RentalReturnItemDto.alreadyReturned(rental));
+            } else {
+                rental.setReturned(true);
+                rentalOverlapChecker.rentalReturned(RentalPeriod.of(rental));
+                items.add(RentalReturnItemDto.returned(rental));
+            }
+        }
+        return items;
+    }
+
+    public StreamingResponseBody exportRentals(Long since) {
+        return catalogExporter.export(() -> rentalRepository.streamAllAfter(since));
+    }
+
+    public CursorPage<RentalDto> getClientRentals(Long clientId, Boolean returned, LocalDate from, LocalDate to,
+                                                  String after, Integer size) {
+        int pageSize = paginationProperties.resolveSize(size);
+        Cursor cursor = after == null || after.isEmpty()
+                ? new Cursor(HISTORY_SORT, HISTORY_END.toString(), Long.MAX_VALUE)
+                : Cursor.decode(after, HISTORY_SORT);
+        LocalDate afterStart;
+        try {
+            afterStart = LocalDate.parse(cursor.getValue());
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + ex.getMessage());
+        }
+        List<RentalDto> rentals = rentalRepository.findClientHistory(clientId, returned,
+                from != null ? from : HISTORY_START, to != null ? to : HISTORY_END,
+                afterStart, cursor.getId(), CursorPage.limit(pageSize));
+        return CursorPage.of(rentals, pageSize, Function.identity(),
+                rental -> new Cursor(HISTORY_SORT, rental.getStart().toString(), rental.getId()));
     }
 }
@@ -0,0 +1,21 @@
+package com.example.library.rental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class OverdueScanReportDto {
+
+    private LocalDate asOf;
+    private long scanned;
+    private long updated;
+    private long durationMillis;
+
+}
@@ -5,6 +5,7 @@ import com.example.library.client.model.Client;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Getter
@@ -16,7 +17,8 @@ import java.time.LocalDate;
 @Table(name = "rentals")
 public class Rental {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rentals_seq")
+    @SequenceGenerator(name = "rentals_seq", sequenceName = "rentals_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -35,6 +37,13 @@ public class Rental {
 
     private boolean returned;
 
+    @Builder.Default
+    @Column(name = "late_fee", nullable = false)
+    private BigDecimal lateFee = BigDecimal.ZERO;
+
+    @Column(name = "fee_accrued_until")
+    private LocalDate feeAccruedUntil;
+
     @Version
     private int version;
 
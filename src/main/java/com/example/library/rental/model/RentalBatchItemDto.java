@@ -0,0 +1,32 @@
+package com.example.library.rental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RentalBatchItemDto {
+
+    private int index;
+    private Status status;
+    private RentalDto rental;
+    private String error;
+
+    public static RentalBatchItemDto created(int index, RentalDto rental) {
+        return new RentalBatchItemDto(index, Status.CREATED, rental, null);
+    }
+
+    public static RentalBatchItemDto rejected(int index, String error) {
+        return new RentalBatchItemDto(index, Status.REJECTED, null, error);
+    }
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.example.library.rental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RentalBatchResultDto {
+
+    private long created;
+    private long rejected;
+    private List<RentalBatchItemDto> items;
+
+    public static RentalBatchResultDto of(List<RentalBatchItemDto> items) {
+        long created = items.stream().filter(item -> item.getStatus() == RentalBatchItemDto.Status.CREATED).count();
+        return new RentalBatchResultDto(created, items.size() - created, items);
+    }
+
+}
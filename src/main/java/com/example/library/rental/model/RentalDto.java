@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @AllArgsConstructor
@@ -19,6 +20,7 @@ public class RentalDto {
     private LocalDate start;
     private LocalDate end;
     private boolean returned;
+    private BigDecimal lateFee;
 
 
 
@@ -13,6 +13,7 @@ public class RentalMapper {
         dto.setStart(rental.getStart());
         dto.setEnd(rental.getEnd());
         dto.setReturned(rental.isReturned());
+        dto.setLateFee(rental.getLateFee());
         return dto;
     }
 
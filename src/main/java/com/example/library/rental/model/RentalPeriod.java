@@ -0,0 +1,29 @@
+package com.example.library.rental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RentalPeriod {
+
+    private Long id;
+    private Long bookId;
+    private LocalDate start;
+    private LocalDate end;
+
+    public static RentalPeriod of(Rental rental) {
+        return new RentalPeriod(rental.getId(), rental.getBookId(), rental.getStart(), rental.getEnd());
+    }
+
+    public static RentalPeriod of(RentalDto rental) {
+        return new RentalPeriod(rental.getId(), rental.getBookId(), rental.getStart(), rental.getEnd());
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.example.library.rental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RentalReturnItemDto {
+
+    private Long id;
+    private Status status;
+    private RentalDto rental;
+
+    public static RentalReturnItemDto returned(RentalDto rental) {
+        return new RentalReturnItemDto(rental.getId(), Status.RETURNED, rental);
+    }
+
+    public static RentalReturnItemDto alreadyReturned(RentalDto rental) {
+        return new RentalReturnItemDto(rental.getId(), Status.ALREADY_RETURNED, rental);
+    }
+
+    public static RentalReturnItemDto notFound(Long id) {
+        return new RentalReturnItemDto(id, Status.NOT_FOUND, null);
+    }
+
+    public enum Status {
+        RETURNED,
+        ALREADY_RETURNED,
+        NOT_FOUND
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.example.library.rental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RentalReturnResultDto {
+
+    private long returned;
+    private long alreadyReturned;
+    private long notFound;
+    private List<RentalReturnItemDto> items;
+
+    public static RentalReturnResultDto of(List<RentalReturnItemDto> items) {
+        return new RentalReturnResultDto(count(items, RentalReturnItemDto.Status.RETURNED),
+                count(items, RentalReturnItemDto.Status.ALREADY_RETURNED),
+                count(items, RentalReturnItemDto.Status.NOT_FOUND), items);
+    }
+
+    private static long count(List<RentalReturnItemDto> items, RentalReturnItemDto.Status status) {
+        return items.stream().filter(item -> item.getStatus() == status).count();
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.example.library.rental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class RentalReturnedEvent {
+
+    private final RentalPeriod period;
+
+}
@@ -0,0 +1,154 @@
+package com.example.library.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+// Postings from keys to bitmaps of document ids plus the documents themselves, behind one read/write lock. A reload
+// builds fresh maps from a streamed read-only query and swaps them in whole, so searches keep reading the old ones
+// until then; committed changes are applied one document at a time. The search indexes own the query side and read
+// postings() and documents() only from inside read().
+public class DocumentIndex<K, M extends Map<K, RoaringBitmap>, D extends IndexedDocument<K>> {
+
+    private final Supplier<M> newPostings;
+
+    private final ToLongFunction<K> keySize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private M postings;
+
+    private Map<Long, D> documents = new HashMap<>();
+
+    public DocumentIndex(Supplier<M> newPostings, ToLongFunction<K> keySize) {
+        this.newPostings = newPostings;
+        this.keySize = keySize;
+        this.postings = newPostings.get();
+    }
+
+    // Registers <prefix>.memory, <prefix>.<keys> and <prefix>.documents gauges.
+    public void registerGauges(MeterRegistry meterRegistry, String prefix, String keys) {
+        Gauge.builder(prefix + ".memory", this, DocumentIndex::sizeInBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(prefix + "." + keys, this, index -> index.read(() -> index.postings.size()))
+                .register(meterRegistry);
+        Gauge.builder(prefix + ".documents", this, index -> index.read(() -> index.documents.size()))
+                .register(meterRegistry);
+    }
+
+    public <R> void reload(PlatformTransactionManager transactionManager, Supplier<Stream<R>> rows,
+                           Function<R, D> toDocument) {
+        M loadedPostings = newPostings.get();
+        Map<Long, D> loadedDocuments = new HashMap<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<R> stream = rows.get()) {
+                stream.forEach(row -> {
+                    D document = toDocument.apply(row);
+                    loadedDocuments.put(document.id(), document);
+                    index(loadedPostings, document);
+                });
+            }
+        });
+        write(() -> {
+            postings = loadedPostings;
+            documents = loadedDocuments;
+        });
+    }
+
+    public void put(D document) {
+        write(() -> {
+            D previous = documents.put(document.id(), document);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(postings, document);
+        });
+    }
+
+    public void remove(long id) {
+        write(() -> {
+            D previous = documents.remove(id);
+            if (previous != null) {
+                unindex(previous);
+            }
+        });
+    }
+
+    // Replaces a document whose keys stay the same, such as one that only changed a flag.
+    public void update(long id, UnaryOperator<D> change) {
+        write(() -> documents.computeIfPresent(id, (key, document) -> change.apply(document)));
+    }
+
+    public <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public M postings() {
+        return postings;
+    }
+
+    public Map<Long, D> documents() {
+        return documents;
+    }
+
+    // Bitmaps report their own size; keys and documents are estimated.
+    public long sizeInBytes() {
+        return read(() -> {
+            long bytes = 0;
+            for (Map.Entry<K, RoaringBitmap> entry : postings.entrySet()) {
+                bytes += 48 + keySize.applyAsLong(entry.getKey()) + entry.getValue().getLongSizeInBytes();
+            }
+            for (D document : documents.values()) {
+                bytes += document.sizeInBytes();
+            }
+            return bytes;
+        });
+    }
+
+    private void write(Runnable writer) {
+        lock.writeLock().lock();
+        try {
+            writer.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <K> void index(Map<K, RoaringBitmap> postings, IndexedDocument<K> document) {
+        int id = Math.toIntExact(document.id());
+        document.forEachKey(key -> postings.computeIfAbsent(key, ignored -> new RoaringBitmap()).add(id));
+    }
+
+    private void unindex(D document) {
+        int id = Math.toIntExact(document.id());
+        document.forEachKey(key -> {
+            RoaringBitmap ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        });
+    }
+}
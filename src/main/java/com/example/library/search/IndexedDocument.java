@@ -0,0 +1,14 @@
+package com.example.library.search;
+
+import java.util.function.Consumer;
+
+// A document held by a DocumentIndex, posted under every key it reports.
+public interface IndexedDocument<K> {
+
+    long id();
+
+    void forEachKey(Consumer<? super K> action);
+
+    long sizeInBytes();
+
+}
@@ -0,0 +1,29 @@
+package com.example.library.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+// Shared text folding for the in-memory search indexes: accents are stripped, case is folded and the text is cut
+// into words at anything that is not a letter or a digit, so "Émile-Zola" and "emile zola" index alike.
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextNormalizer() {
+    }
+
+    // Distinct words in order of first appearance; none for null or blank text.
+    public static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(SEPARATORS.split(normalized.toLowerCase()))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.library.tracing;
+
+public enum Phase {
+
+    CONTROLLER,
+    SERVICE,
+    REPOSITORY,
+    SERIALIZATION
+
+}
@@ -0,0 +1,33 @@
+package com.example.library.tracing;
+
+import com.example.library.tracing.model.RequestTraceDto;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// GET /actuator/slowrequests lists the slowest requests kept per route with their span trees, slowest first;
+// DELETE starts the collection over.
+@Component
+@Endpoint(id = "slowrequests")
+public class SlowRequestsEndpoint {
+
+    private final TraceRecorder traceRecorder;
+
+    public SlowRequestsEndpoint(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    @ReadOperation
+    public Map<String, List<RequestTraceDto>> slowRequests() {
+        return traceRecorder.slowestRequests();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        traceRecorder.clear();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.library.tracing;
+
+import com.example.library.tracing.model.RequestTraceDto;
+import com.example.library.tracing.model.SpanDto;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Always-on flight recorder for request spans. Every thread owns a preallocated span buffer that only it writes, so
+// opening and closing a span is a few array stores with no locking and no allocation. When a request finishes its
+// duration is compared with the slowest ones kept for its route; only a request that beats them is copied out of the
+// buffer into a span tree, so fast requests leave nothing behind. Memory is bounded by the buffer size per thread and
+// by the number of routes times the traces kept per route.
+@Component
+public class TraceRecorder {
+
+    private static final String OTHER_ROUTES = "OTHER";
+
+    private static final Comparator<RequestTraceDto> BY_DURATION =
+            Comparator.comparingLong(RequestTraceDto::getDurationMicros);
+
+    private static final ClassValue<String> DISPLAY_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            if (Proxy.isProxyClass(type) && type.getInterfaces().length > 0) {
+                return type.getInterfaces()[0].getSimpleName();
+            }
+            return ClassUtils.getUserClass(type).getSimpleName();
+        }
+    };
+
+    private final TracingProperties tracingProperties;
+
+    private final ThreadLocal<SpanBuffer> buffers;
+
+    private final Map<String, SlowestRequests> slowest = new ConcurrentHashMap<>();
+
+    public TraceRecorder(TracingProperties tracingProperties) {
+        this.tracingProperties = tracingProperties;
+        this.buffers = ThreadLocal.withInitial(() -> new SpanBuffer(tracingProperties.getMaxSpans()));
+    }
+
+    public void begin() {
+        if (tracingProperties.isEnabled()) {
+            buffers.get().reset();
+        }
+    }
+
+    // Returns the span's slot for exit, or -1 when no request is being traced on this thread or its buffer is full.
+    public int enter(Phase phase, Class<?> type, String name) {
+        if (!tracingProperties.isEnabled()) {
+            return -1;
+        }
+        return buffers.get().enter(phase, type, name);
+    }
+
+    public void exit(int span) {
+        if (span >= 0) {
+            buffers.get().exit(span);
+        }
+    }
+
+    public void finish(String method, String route, int status) {
+        if (!tracingProperties.isEnabled()) {
+            return;
+        }
+        SpanBuffer buffer = buffers.get();
+        if (!buffer.active) {
+            return;
+        }
+        buffer.active = false;
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - buffer.startedAt);
+        SlowestRequests requests = requestsFor(route);
+        if (durationMicros > requests.floorMicros) {
+            requests.offer(snapshot(buffer, method, route, status, durationMicros));
+        }
+    }
+
+    public Map<String, List<RequestTraceDto>> slowestRequests() {
+        Map<String, List<RequestTraceDto>> result = new TreeMap<>();
+        slowest.forEach((route, requests) -> result.put(route, requests.slowestFirst()));
+        return result;
+    }
+
+    public void clear() {
+        slowest.clear();
+    }
+
+    private SlowestRequests requestsFor(String route) {
+        SlowestRequests requests = slowest.get(route);
+        if (requests != null) {
+            return requests;
+        }
+        String key = slowest.size() < tracingProperties.getMaxEndpoints() ? route : OTHER_ROUTES;
+        return slowest.computeIfAbsent(key, ignored -> new SlowestRequests(tracingProperties.getSlowestPerEndpoint()));
+    }
+
+    private static RequestTraceDto snapshot(SpanBuffer buffer, String method, String route, int status,
+                                            long durationMicros) {
+        List<SpanDto> roots = new ArrayList<>();
+        SpanDto[] spans = new SpanDto[buffer.size];
+        long finishedAt = System.nanoTime();
+        for (int i = 0; i < buffer.size; i++) {
+            long end = buffer.ends[i] != 0 ? buffer.ends[i] : finishedAt;
+            spans[i] = new SpanDto(buffer.phases[i], DISPLAY_NAMES.get(buffer.types[i]) + "." + buffer.names[i],
+                    TimeUnit.NANOSECONDS.toMicros(buffer.starts[i] - buffer.startedAt),
+                    TimeUnit.NANOSECONDS.toMicros(end - buffer.starts[i]), new ArrayList<>());
+            int parent = buffer.parents[i];
+            (parent >= 0 ? spans[parent].getChildren() : roots).add(spans[i]);
+        }
+        return new RequestTraceDto(method, route, status, buffer.startedAtWallClock, durationMicros, buffer.dropped,
+                roots);
+    }
+
+    // Spans are written in the order they open, so a parent always sits in a lower slot than its children.
+    private static final class SpanBuffer {
+
+        private final Phase[] phases;
+        private final Class<?>[] types;
+        private final String[] names;
+        private final int[] parents;
+        private final long[] starts;
+        private final long[] ends;
+        private int size;
+        private int open;
+        private int dropped;
+        private boolean active;
+        private long startedAt;
+        private Instant startedAtWallClock;
+
+        private SpanBuffer(int capacity) {
+            phases = new Phase[capacity];
+            types = new Class<?>[capacity];
+            names = new String[capacity];
+            parents = new int[capacity];
+            starts = new long[capacity];
+            ends = new long[capacity];
+        }
+
+        private void reset() {
+            Arrays.fill(types, 0, size, null);
+            Arrays.fill(names, 0, size, null);
+            size = 0;
+            open = -1;
+            dropped = 0;
+            active = true;
+            startedAt = System.nanoTime();
+            startedAtWallClock = Instant.now();
+        }
+
+        private int enter(Phase phase, Class<?> type, String name) {
+            if (!active) {
+                return -1;
+            }
+            if (size == phases.length) {
+                dropped++;
+                return -1;
+            }
+            int span = size++;
+            phases[span] = phase;
+            types[span] = type;
+            names[span] = name;
+            parents[span] = open;
+            ends[span] = 0;
+            starts[span] = System.nanoTime();
+            open = span;
+            return span;
+        }
+
+        private void exit(int span) {
+            if (active && span < size) {
+                ends[span] = System.nanoTime();
+                open = parents[span];
+            }
+        }
+    }
+
+    // The slowest traces of one route in a min-heap. The floor is read without locking, so a request that is not
+    // among the slowest is turned away before anything is copied or locked.
+    private static final class SlowestRequests {
+
+        private final int capacity;
+
+        private final PriorityQueue<RequestTraceDto> heap;
+
+        private volatile long floorMicros = -1;
+
+        private SlowestRequests(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity + 1, BY_DURATION);
+        }
+
+        private synchronized void offer(RequestTraceDto trace) {
+            if (capacity <= 0) {
+                return;
+            }
+            heap.add(trace);
+            if (heap.size() > capacity) {
+                heap.poll();
+            }
+            floorMicros = heap.size() < capacity ? -1 : heap.peek().getDurationMicros();
+        }
+
+        private synchronized List<RequestTraceDto> slowestFirst() {
+            List<RequestTraceDto> traces = new ArrayList<>(heap);
+            traces.sort(BY_DURATION.reversed());
+            return traces;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.library.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class TracingAspect {
+
+    private final TraceRecorder traceRecorder;
+
+    public TracingAspect(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    @Around("within(@org.springframework.web.bind.annotation.RestController com.example.library..*)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Phase.CONTROLLER, joinPoint);
+    }
+
+    @Around("within(@org.springframework.stereotype.Service com.example.library..*)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Phase.SERVICE, joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Phase.REPOSITORY, joinPoint);
+    }
+
+    private Object trace(Phase phase, ProceedingJoinPoint joinPoint) throws Throwable {
+        int span = traceRecorder.enter(phase, joinPoint.getThis().getClass(), joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            traceRecorder.exit(span);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.library.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   TraceRecorder traceRecorder) {
+        return new TracingJackson2HttpMessageConverter(objectMapper, traceRecorder);
+    }
+}
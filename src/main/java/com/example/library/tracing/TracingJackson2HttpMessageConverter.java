@@ -0,0 +1,31 @@
+package com.example.library.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Takes the place of the Jackson converter Spring Boot registers, so JSON serialization shows up as its own span.
+public class TracingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final TraceRecorder traceRecorder;
+
+    public TracingJackson2HttpMessageConverter(ObjectMapper objectMapper, TraceRecorder traceRecorder) {
+        super(objectMapper);
+        this.traceRecorder = traceRecorder;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        int span = traceRecorder.enter(Phase.SERIALIZATION, object.getClass(), "write");
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            traceRecorder.exit(span);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.library.tracing;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.tracing")
+public class TracingProperties {
+
+    private boolean enabled = true;
+
+    private int slowestPerEndpoint = 10;
+
+    private int maxSpans = 128;
+
+    private int maxEndpoints = 256;
+
+}
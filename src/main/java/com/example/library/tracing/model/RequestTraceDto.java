@@ -0,0 +1,25 @@
+package com.example.library.tracing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RequestTraceDto {
+
+    private String method;
+    private String route;
+    private int status;
+    private Instant startedAt;
+    private long durationMicros;
+    private int droppedSpans;
+    private List<SpanDto> spans;
+
+}
@@ -0,0 +1,24 @@
+package com.example.library.tracing.model;
+
+import com.example.library.tracing.Phase;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class SpanDto {
+
+    private Phase phase;
+    private String name;
+    private long offsetMicros;
+    private long durationMicros;
+    private List<SpanDto> children = new ArrayList<>();
+
+}
@@ -0,0 +1,35 @@
+CREATE SEQUENCE clients_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE rentals_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE clients (
+  id BIGINT DEFAULT NEXT VALUE FOR clients_seq PRIMARY KEY,
+  first_name VARCHAR(255) NOT NULL,
+  last_name VARCHAR(255) NOT NULL
+);
+CREATE INDEX clients_last_name_id_idx ON clients(last_name, id);
+CREATE TABLE books (
+  id BIGINT DEFAULT NEXT VALUE FOR books_seq PRIMARY KEY,
+  title VARCHAR(255) NOT NULL,
+  author VARCHAR(255) NOT NULL,
+  available BOOLEAN NOT NULL,
+  version INTEGER DEFAULT 0
+);
+CREATE UNIQUE INDEX books_title_uk ON books(title);
+CREATE INDEX books_author_id_idx ON books(author, id);
+
+CREATE TABLE rentals (
+  id BIGINT DEFAULT NEXT VALUE FOR rentals_seq PRIMARY KEY,
+  client_id BIGINT,
+  book_id BIGINT,
+  start_date DATE,
+  end_date DATE,
+  returned BOOLEAN NOT NULL,
+  version INTEGER NOT NULL,
+  late_fee DECIMAL(10, 2) DEFAULT 0 NOT NULL,
+  fee_accrued_until DATE,
+  FOREIGN KEY (client_id) REFERENCES clients(id) ON DELETE CASCADE,
+  FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+);
+CREATE INDEX rentals_client_id_start_date_idx ON rentals(client_id, start_date);
+CREATE INDEX rentals_returned_end_date_idx ON rentals(returned, end_date);
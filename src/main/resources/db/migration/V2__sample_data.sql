@@ -0,0 +1,12 @@
+    INSERT INTO clients (first_Name, last_Name) VALUES ('John', 'Doe');
+    INSERT INTO clients (first_Name, last_Name) VALUES ('Jane', 'Doe');
+
+    MERGE INTO books (title, author, available) KEY (title) VALUES ('Book One', 'Author One', true);
+    MERGE INTO books (title, author, available) KEY (title) VALUES ('Book Two', 'Author Two', true);
+
+    INSERT INTO rentals (client_id, book_id, start_date, end_date, returned, version)
+    VALUES ((SELECT MIN(id) FROM clients WHERE first_name = 'John'), (SELECT MIN(id) FROM books WHERE title = 'Book One'),
+            '2023-01-01', '2023-01-31', false, 1);
+    INSERT INTO rentals (client_id, book_id, start_date, end_date, returned, version)
+    VALUES ((SELECT MIN(id) FROM clients WHERE first_name = 'Jane'), (SELECT MIN(id) FROM books WHERE title = 'Book Two'),
+            '2023-01-01', '2023-01-31', false, 1);
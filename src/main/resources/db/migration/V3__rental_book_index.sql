@@ -0,0 +1 @@
+CREATE INDEX rentals_book_id_returned_start_date_idx ON rentals(book_id, returned, start_date);
@@ -0,0 +1,57 @@
+package com.example.library;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+// Seeding shared by the JMH benchmarks. Rows get explicit, contiguous ids like the pooled ids Hibernate hands out
+// (the raw sequences step by 50, which would spread bitmaps over far more containers), and the table's sequence is
+// moved past them so entities saved while a benchmark runs do not collide with the seeded rows.
+public final class BenchmarkData {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkData() {
+    }
+
+    public static ConfigurableApplicationContext start(String database, String... properties) {
+        String[] args = Stream.concat(
+                Stream.of("--spring.datasource.url=jdbc:h2:mem:" + database, "--spring.jpa.show-sql=false"),
+                Arrays.stream(properties)).toArray(String[]::new);
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+    // Inserts count rows, the i-th holding row.apply(i) for the given columns, and returns their ids in order.
+    public static long[] insert(JdbcTemplate jdbcTemplate, String table, String columns, int count,
+                                IntFunction<Object[]> row) {
+        long firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class) + 1;
+        int width = columns.split(",").length;
+        String sql = "INSERT INTO " + table + " (id, " + columns + ") VALUES (?" + ", ?".repeat(width) + ")";
+        List<Object[]> rows = new ArrayList<>(Math.min(count, BATCH_SIZE));
+        for (int i = 0; i < count; i++) {
+            Object[] values = row.apply(i);
+            Object[] withId = new Object[width + 1];
+            withId[0] = firstId + i;
+            System.arraycopy(values, 0, withId, 1, width);
+            rows.add(withId);
+            if (rows.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+        // Pooled ids are handed out below the sequence value, so leave a whole block of room.
+        jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH " + (firstId + count + 50));
+        return LongStream.range(firstId, firstId + count).toArray();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.library;
+
+import com.example.library.book.model.Book;
+import com.example.library.book.model.BookDto;
+import com.example.library.book.model.BookMapper;
+import com.example.library.client.model.Client;
+import com.example.library.client.model.ClientDto;
+import com.example.library.client.model.ClientMapper;
+import com.example.library.client.model.CreateClientCommand;
+import com.example.library.rental.model.Rental;
+import com.example.library.rental.model.RentalDto;
+import com.example.library.rental.model.RentalMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+
+    private final BookMapper bookMapper = new BookMapper();
+
+    private final ClientMapper clientMapper = new ClientMapper();
+
+    private final RentalMapper rentalMapper = new RentalMapper();
+
+    private Book book;
+
+    private Client client;
+
+    private Rental rental;
+
+    private CreateClientCommand createClientCommand;
+
+    @Setup
+    public void setUp() {
+        book = Book.builder().id(1L).title("Mapped Book").author("Mapped Author").available(true).build();
+        client = Client.builder().id(1L).firstName("Mapped").lastName("Client").build();
+        rental = Rental.builder()
+                .id(1L)
+                .book(book)
+                .client(client)
+                .start(LocalDate.of(2023, 1, 1))
+                .end(LocalDate.of(2023, 1, 8))
+                .lateFee(BigDecimal.ZERO)
+                .build();
+        createClientCommand = new CreateClientCommand("Mapped", "Client");
+    }
+
+    @Benchmark
+    public BookDto bookToDto() {
+        return bookMapper.mapToDto(book);
+    }
+
+    @Benchmark
+    public ClientDto clientToDto() {
+        return clientMapper.mapToDto(client);
+    }
+
+    @Benchmark
+    public Client clientToEntity() {
+        return clientMapper.mapToEntity(createClientCommand);
+    }
+
+    @Benchmark
+    public RentalDto rentalToDto() {
+        return rentalMapper.mapToDto(rental);
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.library;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.Book;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.rental.OverdueScanner;
+import com.example.library.rental.RentalRepository;
+import com.example.library.rental.model.Rental;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs every repository query, collects the SQL H2 actually received and checks its EXPLAIN output: no statement may
+// scan a table, and each query must go through the index it was written for. A new repository method fails the
+// coverage test until it is listed here with its index or, for whole-table loads, as an intended full scan.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query-plans")
+@ActiveProfiles("test")
+public class QueryPlanTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 6, 15);
+
+    private static final String PRIMARY_KEY = "PRIMARY_KEY";
+
+    // Whole-table loads that warm the in-memory indexes, plus the offset page that the keyset pages replace.
+    private static final Set<String> FULL_SCANS = Set.of(
+            "BookRepository.findAll",
+            "BookRepository.streamAllTitles",
+            "BookRepository.streamAllDtos",
+            "BookRepository.streamAvailableIds",
+            "ClientRepository.streamAllDtos");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private OverdueScanner overdueScanner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Book book;
+
+    private Client client;
+
+    private Rental rental;
+
+    @BeforeEach
+    void init() {
+        List<Book> books = new ArrayList<>();
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            books.add(Book.builder().title("Plan Book " + i).author("Plan Author " + i % 5).available(true).build());
+            clients.add(Client.builder().firstName("Plan").lastName("Client " + i).build());
+        }
+        books = bookRepository.saveAll(books);
+        clients = clientRepository.saveAll(clients);
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rentals.add(Rental.builder()
+                    .book(books.get(i))
+                    .client(clients.get(i % 10))
+                    .start(TODAY.minusDays(i))
+                    .end(TODAY.minusDays(i).plusDays(7))
+                    .returned(i % 3 == 0)
+                    .build());
+        }
+        rentals = rentalRepository.saveAll(rentals);
+        // Without statistics H2 rates a boolean index as selective as the primary key on tables this small.
+        jdbcTemplate.execute("ANALYZE");
+        book = books.get(1);
+        client = clients.get(1);
+        rental = rentals.get(1);
+    }
+
+    @Test
+    public void testEveryRepositoryQueryHasAPlanExpectation() {
+        Map<String, HotQuery> hotQueries = hotQueries();
+        for (Class<?> repository : List.of(BookRepository.class, ClientRepository.class, RentalRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                String name = repository.getSimpleName() + "." + method.getName();
+                assertTrue(hotQueries.containsKey(name) || FULL_SCANS.contains(name),
+                        name + " has no query plan expectation");
+            }
+        }
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> testHotQueriesUseTheirIndexes() {
+        return hotQueries().entrySet().stream().map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+            List<String> plans = plansOf(entry.getValue().query);
+            assertFalse(plans.isEmpty(), entry.getKey() + " issued no statement");
+            for (String plan : plans) {
+                assertFalse(plan.contains(".tableScan"), entry.getKey() + " scans a table:\n" + plan);
+            }
+            assertTrue(plans.stream().anyMatch(plan -> plan.contains(entry.getValue().access)),
+                    entry.getKey() + " does not use " + entry.getValue().access + ":\n" + String.join("\n", plans));
+        }));
+    }
+
+    @AfterEach
+    void teardown() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    private Map<String, HotQuery> hotQueries() {
+        PageRequest page = PageRequest.of(0, 20);
+        Map<String, HotQuery> queries = new LinkedHashMap<>();
+        queries.put("BookRepository.findByIdForWrite", new HotQuery(PRIMARY_KEY,
+                () -> bookRepository.findByIdForWrite(book.getId())));
+        queries.put("BookRepository.findAllByIdForWrite", new HotQuery(PRIMARY_KEY,
+                () -> bookRepository.findAllByIdForWrite(List.of(book.getId()))));
+        queries.put("BookRepository.findByIdForOptimisticWrite", new HotQuery(PRIMARY_KEY,
+                () -> bookRepository.findByIdForOptimisticWrite(book.getId())));
+        queries.put("BookRepository.blockBook", new HotQuery(PRIMARY_KEY,
+                () -> bookRepository.blockBook(book.getId())));
+        queries.put("BookRepository.existsByTitle", new HotQuery("BOOKS_TITLE_UK",
+                () -> bookRepository.existsByTitle(book.getTitle())));
+        queries.put("BookRepository.findPageAfterId", new HotQuery(PRIMARY_KEY,
+                () -> bookRepository.findPageAfterId(book.getId(), page)));
+        queries.put("BookRepository.findPageAfterTitle", new HotQuery("BOOKS_TITLE_UK",
+                () -> bookRepository.findPageAfterTitle(book.getTitle(), book.getId(), page)));
+        queries.put("BookRepository.findPageAfterAuthor", new HotQuery("BOOKS_AUTHOR_ID_IDX",
+                () -> bookRepository.findPageAfterAuthor(book.getAuthor(), book.getId(), page)));
+        queries.put("BookRepository.findAllByIdOrderById", new HotQuery(PRIMARY_KEY,
+                () -> bookRepository.findAllByIdOrderById(List.of(book.getId()))));
+        queries.put("BookRepository.findAvailableInPeriodAfter", new HotQuery("RENTALS_BOOK_ID_RETURNED_START_DATE_IDX",
+                () -> bookRepository.findAvailableInPeriodAfter(0L, TODAY, TODAY.plusDays(7), page)));
+        queries.put("BookRepository.streamAllAfter", new HotQuery(PRIMARY_KEY,
+                () -> bookRepository.streamAllAfter(book.getId()).forEach(found -> { })));
+        queries.put("ClientRepository.findPageAfterId", new HotQuery(PRIMARY_KEY,
+                () -> clientRepository.findPageAfterId(client.getId(), page)));
+        queries.put("ClientRepository.findPageAfterLastName", new HotQuery("CLIENTS_LAST_NAME_ID_IDX",
+                () -> clientRepository.findPageAfterLastName(client.getLastName(), client.getId(), page)));
+        queries.put("ClientRepository.streamAllAfter", new HotQuery(PRIMARY_KEY,
+                () -> clientRepository.streamAllAfter(client.getId()).forEach(found -> { })));
+        queries.put("RentalRepository.findByClientId", new HotQuery("CLIENT_ID = ?1 */",
+                () -> rentalRepository.findByClientId(client.getId())));
+        queries.put("RentalRepository.findClientHistory", new HotQuery("RENTALS_CLIENT_ID_START_DATE_IDX",
+                () -> rentalRepository.findClientHistory(client.getId(), null, TODAY.minusYears(1), TODAY.plusYears(1),
+                        TODAY.plusYears(1), Long.MAX_VALUE, page)));
+        queries.put("RentalRepository.existsByBookIdAndStartLessThanEqualAndEndGreaterThanEqual",
+                new HotQuery("RENTALS_BOOK_ID_RETURNED_START_DATE_IDX",
+                        () -> rentalRepository.existsByBookIdAndStartLessThanEqualAndEndGreaterThanEqual(
+                                book.getId(), TODAY.plusDays(7), TODAY)));
+        queries.put("RentalRepository.findActivePeriods", new HotQuery("RENTALS_BOOK_ID_RETURNED_START_DATE_IDX",
+                () -> rentalRepository.findActivePeriods(List.of(book.getId()), TODAY, TODAY.plusDays(7))));
+        queries.put("RentalRepository.streamActivePeriods", new HotQuery("RENTALS_RETURNED_END_DATE_IDX",
+                () -> rentalRepository.streamActivePeriods().forEach(found -> { })));
+        queries.put("RentalRepository.streamAllAfter", new HotQuery(PRIMARY_KEY,
+                () -> rentalRepository.streamAllAfter(rental.getId()).forEach(found -> { })));
+        queries.put("RentalRepository.findAllDtosByIdForWrite", new HotQuery(PRIMARY_KEY,
+                () -> rentalRepository.findAllDtosByIdForWrite(List.of(rental.getId()))));
+        queries.put("RentalRepository.markReturned", new HotQuery(PRIMARY_KEY,
+                () -> rentalRepository.markReturned(List.of(rental.getId()))));
+        queries.put("OverdueScanner.scan", new HotQuery("RENTALS_RETURNED_END_DATE_IDX",
+                () -> overdueScanner.scan(TODAY)));
+        return queries;
+    }
+
+    // H2 keeps the text of every statement while query statistics are on; switching them off clears the list.
+    private List<String> plansOf(Runnable query) {
+        List<String> statements;
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        try {
+            transactionTemplate.executeWithoutResult(status -> query.run());
+            statements = jdbcTemplate.queryForList("SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS",
+                    String.class);
+        } finally {
+            jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        }
+        List<String> plans = new ArrayList<>();
+        for (String statement : statements) {
+            String verb = statement.trim().toLowerCase(Locale.ROOT);
+            if (verb.startsWith("select") || verb.startsWith("update") || verb.startsWith("delete")) {
+                if (!verb.contains("information_schema") && !verb.contains("next value for")) {
+                    plans.add(explain(statement));
+                }
+            }
+        }
+        return plans;
+    }
+
+    private String explain(String statement) {
+        return String.join("\n", jdbcTemplate.query(connection -> {
+            PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement);
+            for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                explain.setObject(i, null);
+            }
+            return explain;
+        }, (resultSet, row) -> resultSet.getString(1)));
+    }
+
+    // The access is an index name, or the index condition where H2 picks the index it created for a foreign key.
+    private record HotQuery(String access, Runnable query) {
+    }
+}
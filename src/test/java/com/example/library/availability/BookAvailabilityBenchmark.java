@@ -0,0 +1,109 @@
+package com.example.library.availability;
+
+import com.example.library.BenchmarkData;
+import com.example.library.book.BookRepository;
+import com.example.library.book.BookService;
+import com.example.library.book.model.Book;
+import com.example.library.book.model.BookDto;
+import com.example.library.pagination.CursorPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookAvailabilityBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000"})
+    private int books;
+
+    @Param({"7", "60"})
+    private int rangeDays;
+
+    private ConfigurableApplicationContext context;
+
+    private BookAvailabilityIndex bookAvailabilityIndex;
+
+    private BookRepository bookRepository;
+
+    private BookService bookService;
+
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start("availability-benchmark", "--library.availability.enabled=true");
+        bookAvailabilityIndex = context.getBean(BookAvailabilityIndex.class);
+        bookRepository = context.getBean(BookRepository.class);
+        bookService = context.getBean(BookService.class);
+        today = LocalDate.now();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long[] bookIds = BenchmarkData.insert(jdbcTemplate, "books", "title, author, available", books,
+                i -> new Object[]{"Benchmark Book " + i, "Benchmark Author", i % 50 != 0});
+        Long clientId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM clients", Long.class);
+
+        // Roughly one rental a month per book, each lasting a week, spread over the next year.
+        Random random = new Random(42);
+        BenchmarkData.insert(jdbcTemplate, "rentals", "client_id, book_id, start_date, end_date, returned, version",
+                books * 12, i -> {
+                    LocalDate start = today.plusDays((i % 12) * 30L + random.nextInt(23));
+                    return new Object[]{clientId, bookIds[i / 12], Date.valueOf(start), Date.valueOf(start.plusDays(6)),
+                            false, 0};
+                });
+
+        bookAvailabilityIndex.reload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> bitmapIds() {
+        LocalDate from = randomFrom();
+        return bookAvailabilityIndex.findAvailable(from, from.plusDays(rangeDays - 1), 0, PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public CursorPage<BookDto> bitmapPage() {
+        LocalDate from = randomFrom();
+        return bookService.getAvailableBooks(from, from.plusDays(rangeDays - 1), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Book> queryPage() {
+        LocalDate from = randomFrom();
+        return bookRepository.findAvailableInPeriodAfter(0L, from, from.plusDays(rangeDays - 1),
+                CursorPage.limit(PAGE_SIZE));
+    }
+
+    private LocalDate randomFrom() {
+        return today.plusDays(ThreadLocalRandom.current().nextInt(300));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.library.availability;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.BookAvailabilityChangedEvent;
+import com.example.library.rental.RentalRepository;
+import com.example.library.rental.model.RentalPeriod;
+import com.example.library.rental.model.RentalReturnedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookAvailabilityIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookAvailabilityIndex bookAvailabilityIndex;
+
+    @BeforeEach
+    void init() {
+        AvailabilityProperties availabilityProperties = new AvailabilityProperties();
+        availabilityProperties.setEnabled(true);
+        availabilityProperties.setHorizonDays(30);
+        bookAvailabilityIndex = new BookAvailabilityIndex(bookRepository, rentalRepository, availabilityProperties, transactionManager);
+
+        when(bookRepository.streamAvailableIds()).thenReturn(Stream.of(1L, 2L, 3L, 4L, 5L));
+        when(rentalRepository.streamActivePeriods()).thenReturn(Stream.of(
+                new RentalPeriod(10L, 2L, TODAY.plusDays(1), TODAY.plusDays(3)),
+                new RentalPeriod(11L, 4L, TODAY.plusDays(10), TODAY.plusDays(12)),
+                new RentalPeriod(12L, 5L, TODAY.minusDays(5), TODAY.plusDays(2))));
+        bookAvailabilityIndex.load();
+    }
+
+    @Test
+    public void testFindAvailableExcludesBooksBookedOnAnyDayOfTheRange() {
+        assertEquals(List.of(1L, 3L, 4L), bookAvailabilityIndex.findAvailable(TODAY.plusDays(2), TODAY.plusDays(4), 0, 10));
+        assertEquals(List.of(1L, 2L, 3L, 5L), bookAvailabilityIndex.findAvailable(TODAY.plusDays(5), TODAY.plusDays(11), 0, 10));
+    }
+
+    @Test
+    public void testFindAvailableResumesAfterCursorAndHonoursLimit() {
+        assertEquals(List.of(3L, 4L), bookAvailabilityIndex.findAvailable(TODAY.plusDays(20), TODAY.plusDays(21), 2, 2));
+    }
+
+    @Test
+    public void testEventsUpdateTheIndex() {
+        bookAvailabilityIndex.onRentalReturned(new RentalReturnedEvent(new RentalPeriod(10L, 2L, TODAY.plusDays(1), TODAY.plusDays(3))));
+        bookAvailabilityIndex.onBookAvailabilityChanged(new BookAvailabilityChangedEvent(1L, false));
+        bookAvailabilityIndex.onBookAvailabilityChanged(new BookAvailabilityChangedEvent(6L, true));
+
+        assertEquals(List.of(2L, 3L, 4L, 6L), bookAvailabilityIndex.findAvailable(TODAY.plusDays(2), TODAY.plusDays(4), 0, 10));
+    }
+
+    @Test
+    public void testCoversOnlyTheHorizon() {
+        assertTrue(bookAvailabilityIndex.covers(TODAY, TODAY.plusDays(29)));
+        assertFalse(bookAvailabilityIndex.covers(TODAY, TODAY.plusDays(30)));
+        assertFalse(bookAvailabilityIndex.covers(TODAY.minusDays(1), TODAY));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.library.availability;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.BookService;
+import com.example.library.book.model.Book;
+import com.example.library.book.model.BookDto;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.rental.RentalRepository;
+import com.example.library.rental.RentalService;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.example.library.rental.model.RentalDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:availability",
+        "library.availability.enabled=true"
+})
+@ActiveProfiles("test")
+public class BookAvailabilityIntegrationTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Test
+    public void testAvailabilityFollowsRentalsAndBlocking() {
+        Client client = clientRepository.save(Client.builder().firstName("Avail").lastName("Ability").build());
+        Book book = bookRepository.save(Book.builder().title("Availability Book").author("Author").available(true).build());
+        LocalDate from = LocalDate.now().plusDays(3);
+        LocalDate to = LocalDate.now().plusDays(5);
+
+        assertTrue(availableIds(from, to).contains(book.getId()));
+
+        RentalDto rental = rentalService.createRental(new CreateRentalCommand(client.getId(), book.getId(), from.plusDays(1), to.plusDays(3)));
+        assertFalse(availableIds(from, to).contains(book.getId()));
+        assertTrue(availableIds(to.plusDays(4), to.plusDays(6)).contains(book.getId()));
+
+        rentalService.returnRental(rental.getId());
+        assertTrue(availableIds(from, to).contains(book.getId()));
+
+        bookService.blockBook(book.getId());
+        assertFalse(availableIds(from, to).contains(book.getId()));
+    }
+
+    private List<Long> availableIds(LocalDate from, LocalDate to) {
+        return bookService.getAvailableBooks(from, to, null, 100).getContent().stream().map(BookDto::getId).toList();
+    }
+
+    @AfterEach
+    void teardown() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+}
@@ -1,7 +1,17 @@
 package com.example.library.book;
 
 import com.example.library.book.model.Book;
+import com.example.library.book.model.BookDto;
 import com.example.library.book.model.CreateBookCommand;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.metrics.SqlStatements;
+import com.example.library.rental.RentalRepository;
+import com.example.library.rental.RentalService;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.example.library.rental.model.Rental;
+import com.example.library.rental.model.RentalDto;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,17 +19,25 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -37,6 +55,15 @@ public class BookControllerTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private RentalService rentalService;
+
     private static Book book;
 
     @BeforeEach
@@ -101,8 +128,8 @@ public class BookControllerTest {
 
     @Test
     public void shouldGetAllBooks() throws Exception {
-        mockMvc.perform(get("/api/books")
-                        .contentType(MediaType.APPLICATION_JSON))
+        SqlStatements.assertAtMost(2, () -> mockMvc.perform(get("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content.length()", is(1)))
                 .andExpect(jsonPath("$.content[0].title", is(book.getTitle())))
@@ -113,6 +140,226 @@ public class BookControllerTest {
     }
 
 
+    @Test
+    public void shouldAnswerNotModifiedUntilCatalogChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(put("/api/books/{id}/block", bookRepository.findAll().get(0).getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.content[0].available").value(false));
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedWhenAnyListedTagMatches() throws Exception {
+        String etag = currentBooksEtag();
+
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, "\"other\", \"another\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedForWeakTag() throws Exception {
+        String etag = currentBooksEtag();
+
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedForWildcard() throws Exception {
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void shouldListBooksFreeForTheWholeRange() throws Exception {
+        Book rented = bookRepository.save(Book.builder().title("Rented Title").author("Rented Author").available(true).build());
+        Client client = clientRepository.save(Client.builder().firstName("Range").lastName("Renter").build());
+        rentalRepository.save(Rental.builder().book(rented).client(client)
+                .start(LocalDate.now().plusDays(2)).end(LocalDate.now().plusDays(4)).returned(false).build());
+
+        mockMvc.perform(get("/api/books/available")
+                        .param("from", LocalDate.now().plusDays(4).toString())
+                        .param("to", LocalDate.now().plusDays(6).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.title == 'Rented Title')]").doesNotExist())
+                .andExpect(jsonPath("$.content[?(@.title == 'Book Title')]").exists());
+
+        mockMvc.perform(get("/api/books/available")
+                        .param("from", LocalDate.now().plusDays(5).toString())
+                        .param("to", LocalDate.now().plusDays(6).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.title == 'Rented Title')]").exists());
+
+        rentalRepository.deleteAll();
+        clientRepository.delete(client);
+    }
+
+    @Test
+    public void shouldReturnFreeIntervalsUntilTheBooksRentalsChange() throws Exception {
+        LocalDate today = LocalDate.now();
+        Book rented = bookRepository.save(Book.builder().title("Calendar Title").author("Calendar Author").available(true).build());
+        Client client = clientRepository.save(Client.builder().firstName("Calendar").lastName("Renter").build());
+        RentalDto first = rentalService.createRental(new CreateRentalCommand(client.getId(), rented.getId(), today.plusDays(2), today.plusDays(4)));
+        rentalService.createRental(new CreateRentalCommand(client.getId(), rented.getId(), today.plusDays(8), today.plusDays(9)));
+
+        MvcResult result = mockMvc.perform(get("/api/books/" + rented.getId() + "/availability")
+                        .param("from", today.toString())
+                        .param("to", today.plusDays(12).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.free.length()").value(3))
+                .andExpect(jsonPath("$.free[0].to").value(today.plusDays(1).toString()))
+                .andExpect(jsonPath("$.free[1].from").value(today.plusDays(5).toString()))
+                .andExpect(jsonPath("$.free[1].to").value(today.plusDays(7).toString()))
+                .andExpect(jsonPath("$.free[2].from").value(today.plusDays(10).toString()))
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/books/" + rented.getId() + "/availability")
+                        .param("from", today.toString())
+                        .param("to", today.plusDays(12).toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        rentalService.returnRental(first.getId());
+
+        mockMvc.perform(get("/api/books/" + rented.getId() + "/availability")
+                        .param("from", today.toString())
+                        .param("to", today.plusDays(12).toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(is(etag))))
+                .andExpect(jsonPath("$.free.length()").value(2))
+                .andExpect(jsonPath("$.free[0].to").value(today.plusDays(7).toString()));
+
+        rentalRepository.deleteAll();
+        clientRepository.delete(client);
+    }
+
+    @Test
+    public void shouldFindCreatedBooksByTitleAndAuthorPrefixes() throws Exception {
+        CreateBookCommand command = new CreateBookCommand();
+        command.setTitle("Searchable Wanderings");
+        command.setAuthor("Zoë Searcher");
+        mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/books/search").param("q", "wander zoe"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Searchable Wanderings"));
+
+        mockMvc.perform(get("/api/books/search").param("q", "?!"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldImportBooksFromNdjsonRejectingInvalidRows() throws Exception {
+        String body = String.join("\n",
+                "{\"title\":\"Imported One\",\"author\":\"Author One\"}",
+                "{\"title\":\"Book Title\",\"author\":\"Duplicate Of Existing\"}",
+                "{\"title\":\"Imported Two\",\"author\":\"\"}",
+                "not json",
+                "{\"title\":\"Imported One\",\"author\":\"Duplicate In Body\"}",
+                "{\"title\":\"Imported Three\",\"author\":\"Author Three\"}");
+
+        mockMvc.perform(post("/api/books/import")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(6))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(4))
+                .andExpect(jsonPath("$.rejections[0].line").value(2))
+                .andExpect(jsonPath("$.rejections[0].reason").value("Book with title 'Book Title' already exists"))
+                .andExpect(jsonPath("$.rejections[1].reason").value("Author cannot be empty"));
+
+        assertTrue(bookRepository.existsByTitle("Imported One"));
+        assertTrue(bookRepository.existsByTitle("Imported Three"));
+        assertFalse(bookRepository.existsByTitle("Imported Two"));
+    }
+
+    @Test
+    public void shouldWalkAllBooksByTitleWithCursor() throws Exception {
+        for (String title : List.of("Cursor C", "Cursor A", "Cursor B")) {
+            bookRepository.save(Book.builder().title(title).author("Cursor Author").available(true).build());
+        }
+        List<String> expectedTitles = bookRepository.findAll().stream().map(Book::getTitle).sorted().toList();
+
+        List<String> titles = new ArrayList<>();
+        String after = null;
+        do {
+            var request = get("/api/books/cursor").param("size", "2").param("sort", "title");
+            if (after != null) {
+                request.param("after", after);
+            }
+            String response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(response);
+            page.get("content").forEach(node -> titles.add(node.get("title").asText()));
+            after = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (after != null);
+
+        assertEquals(expectedTitles, titles);
+    }
+
+    @Test
+    public void shouldRejectCursorFromAnotherSort() throws Exception {
+        bookRepository.save(Book.builder().title("Another Title").author("Another Author").available(true).build());
+
+        String response = mockMvc.perform(get("/api/books/cursor").param("size", "1").param("sort", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/books/cursor").param("after", cursor).param("sort", "author"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldExportAllBooksAsNdjson() throws Exception {
+        bookRepository.save(Book.builder().title("Exported Title").author("Exported Author").available(true).build());
+        long bookCount = bookRepository.count();
+
+        MvcResult result = mockMvc.perform(get("/api/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<BookDto> exported = new ArrayList<>();
+        for (String line : body.lines().toList()) {
+            exported.add(objectMapper.readValue(line, BookDto.class));
+        }
+        assertEquals(bookCount, exported.size());
+        assertTrue(exported.stream().anyMatch(bookDto -> bookDto.getTitle().equals("Exported Title")));
+    }
+
+    private String currentBooksEtag() throws Exception {
+        return mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
     @AfterEach
     void teardown() {
         bookRepository.deleteAll();
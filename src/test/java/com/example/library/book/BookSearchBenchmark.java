@@ -0,0 +1,96 @@
+package com.example.library.book;
+
+import com.example.library.BenchmarkData;
+import com.example.library.book.model.BookDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookSearchBenchmark {
+
+    private static final int LIMIT = 20;
+
+    private static final int VOCABULARY = 5000;
+
+    @Param({"100000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+
+    private BookSearchIndex bookSearchIndex;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private String[] words;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start("search-benchmark");
+        bookSearchIndex = context.getBean(BookSearchIndex.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Random random = new Random(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 4 + random.nextInt(6); word.length() < length; ) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        BenchmarkData.insert(jdbcTemplate, "books", "title, author, available", books,
+                i -> new Object[]{words[random.nextInt(VOCABULARY)] + " " + words[random.nextInt(VOCABULARY)]
+                        + " " + words[random.nextInt(VOCABULARY)] + " " + i,
+                        words[random.nextInt(VOCABULARY)] + " " + words[random.nextInt(VOCABULARY)], true});
+        bookSearchIndex.reload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDto> indexPrefix() {
+        return bookSearchIndex.search(randomWord().substring(0, 3), LIMIT);
+    }
+
+    @Benchmark
+    public List<BookDto> indexTwoTerms() {
+        return bookSearchIndex.search(randomWord() + " " + randomWord().substring(0, 3), LIMIT);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> likeQuery() {
+        String pattern = "%" + randomWord().substring(0, 3) + "%";
+        return jdbcTemplate.queryForList("SELECT id, title, author, available FROM books " +
+                "WHERE LOWER(title) LIKE ? OR LOWER(author) LIKE ? LIMIT " + LIMIT, pattern, pattern);
+    }
+
+    private String randomWord() {
+        return words[ThreadLocalRandom.current().nextInt(VOCABULARY)];
+    }
+}
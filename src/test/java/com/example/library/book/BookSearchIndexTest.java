@@ -0,0 +1,88 @@
+package com.example.library.book;
+
+import com.example.library.book.model.BookAvailabilityChangedEvent;
+import com.example.library.book.model.BookDto;
+import com.example.library.book.model.BookRemovedEvent;
+import com.example.library.book.model.BookSavedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(bookRepository.streamAllDtos()).thenReturn(Stream.of(
+                new BookDto(1L, "The Lord of the Rings", "J. R. R. Tolkien", true),
+                new BookDto(2L, "Lorde: A Biography", "Jane Doe", true),
+                new BookDto(3L, "Crime and Punishment", "Fiodor Dostojewski", true),
+                new BookDto(4L, "Dostojewski's Letters", "Anna Lord", true),
+                new BookDto(5L, "Café Society", "Émile Zola", true)));
+        bookSearchIndex = new BookSearchIndex(bookRepository, new BookProperties(), transactionManager, meterRegistry);
+        bookSearchIndex.reload();
+    }
+
+    @Test
+    public void testExactTitleMatchesRankAbovePrefixAndAuthorMatches() {
+        assertEquals(List.of(1L, 2L, 4L), ids(bookSearchIndex.search("lord", 10)));
+    }
+
+    @Test
+    public void testEveryTermMustMatchAndDiacriticsAreIgnored() {
+        assertEquals(List.of(3L), ids(bookSearchIndex.search("dosto crime", 10)));
+        assertEquals(List.of(5L), ids(bookSearchIndex.search("cafe EMILE", 10)));
+        assertTrue(bookSearchIndex.search("lord crime", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> bookSearchIndex.search(" - ", 10));
+    }
+
+    @Test
+    public void testCommittedChangesAreAppliedIncrementally() {
+        bookSearchIndex.onBookSaved(new BookSavedEvent(6L, "Lord Jim", "Joseph Conrad", true));
+        bookSearchIndex.onBookSaved(new BookSavedEvent(1L, "The Hobbit", "J. R. R. Tolkien", true));
+        bookSearchIndex.onBookRemoved(new BookRemovedEvent(2L));
+        bookSearchIndex.onBookAvailabilityChanged(new BookAvailabilityChangedEvent(6L, false));
+
+        List<BookDto> hits = bookSearchIndex.search("lord", 10);
+
+        assertEquals(List.of(6L, 4L), ids(hits));
+        assertFalse(hits.get(0).isAvailable());
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("hobbit", 10)));
+    }
+
+    @Test
+    public void testResultsAreLimitedAndMemoryIsReported() {
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("lor", 1)));
+        assertTrue(meterRegistry.get("library.book.search.memory").gauge().value() > 0);
+        assertEquals(5, meterRegistry.get("library.book.search.documents").gauge().value());
+    }
+
+    private static List<Long> ids(List<BookDto> books) {
+        return books.stream().map(BookDto::getId).toList();
+    }
+}
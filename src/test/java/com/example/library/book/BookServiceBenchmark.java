@@ -0,0 +1,72 @@
+package com.example.library.book;
+
+import com.example.library.BenchmarkData;
+import com.example.library.book.model.BookDto;
+import com.example.library.book.model.CreateBookCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+
+    private BookService bookService;
+
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start("book-service-benchmark");
+        bookService = context.getBean(BookService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.insert(jdbcTemplate, "books", "title, author, available", books,
+                i -> new Object[]{"Benchmark Book " + i, "Benchmark Author " + i % 1000, i % 50 != 0});
+        context.getBean(BookSearchIndex.class).reload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookDto createBook() {
+        long n = created.incrementAndGet();
+        return bookService.createBook(new CreateBookCommand("Benchmark New Book " + n, "Benchmark Author " + n % 1000));
+    }
+
+    @Benchmark
+    public Page<BookDto> getAllBooksPage() {
+        int page = ThreadLocalRandom.current().nextInt(books / PAGE_SIZE);
+        return bookService.getAllBooks(PageRequest.of(page, PAGE_SIZE));
+    }
+}
@@ -8,6 +8,7 @@ import com.example.library.exception.DatabaseException;
 import com.example.library.exception.DuplicateResourceException;
 import com.example.library.exception.ResourceNotFoundException;
 import jakarta.persistence.OptimisticLockException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -22,6 +23,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.List;
@@ -162,6 +164,20 @@ public class BookServiceTest {
         assertThrows(DatabaseException.class, () -> bookService.createBook(createBookCommand));
     }
 
+    @Test
+    public void testCreateBookWithTitleUniqueViolation() {
+        CreateBookCommand createBookCommand = new CreateBookCommand();
+        createBookCommand.setTitle("Book One");
+        createBookCommand.setAuthor("Author One");
+
+        ConstraintViolationException violation = new ConstraintViolationException("Unique index or primary key violation",
+                new SQLException(), "\"PUBLIC.BOOKS_TITLE_UK ON PUBLIC.BOOKS(TITLE NULLS FIRST) VALUES ( /* 1 */ 'Book One' )\"");
+
+        when(bookRepository.save(any(Book.class))).thenThrow(new DataIntegrityViolationException("", violation));
+
+        assertThrows(DuplicateResourceException.class, () -> bookService.createBook(createBookCommand));
+    }
+
     @Test
     public void testCreateBookWithOptimisticLockException() {
         CreateBookCommand createBookCommand = new CreateBookCommand();
@@ -0,0 +1,101 @@
+package com.example.library.book;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookTitleFilterTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookProperties bookProperties;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void init() {
+        bookProperties = new BookProperties();
+        bookProperties.getTitleFilter().setEnabled(true);
+        bookProperties.getTitleFilter().setExpectedInsertions(10_000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void testLoadedTitlesAreNeverReportedAbsent() {
+        when(bookRepository.streamAllTitles()).thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "Title " + i));
+        BookTitleFilter bookTitleFilter = new BookTitleFilter(bookRepository, bookProperties, transactionManager, meterRegistry);
+
+        bookTitleFilter.load();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bookTitleFilter.mightContain("Title " + i));
+        }
+    }
+
+    @Test
+    public void testDisabledFilterCountsNoFalsePositives() {
+        bookProperties.getTitleFilter().setEnabled(false);
+        BookTitleFilter bookTitleFilter = new BookTitleFilter(bookRepository, bookProperties, transactionManager, meterRegistry);
+
+        assertTrue(bookTitleFilter.mightContain("New Title"));
+        bookTitleFilter.falsePositive();
+
+        assertEquals(0, meterRegistry.get("library.book.title-filter.false.positives").counter().count());
+    }
+
+    @Test
+    public void testFalsePositiveRateStaysNearConfiguredProbability() {
+        when(bookRepository.streamAllTitles()).thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "Title " + i));
+        BookTitleFilter bookTitleFilter = new BookTitleFilter(bookRepository, bookProperties, transactionManager, meterRegistry);
+        bookTitleFilter.load();
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> bookTitleFilter.mightContain("Missing " + i))
+                .count();
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertTrue(meterRegistry.get("library.book.title-filter.fpp").gauge().value() < 0.02);
+        assertTrue(meterRegistry.get("library.book.title-filter.memory").gauge().value() > 0);
+    }
+
+    @Test
+    public void testPutMakesTitleVisible() {
+        when(bookRepository.streamAllTitles()).thenReturn(Stream.empty());
+        BookTitleFilter bookTitleFilter = new BookTitleFilter(bookRepository, bookProperties, transactionManager, meterRegistry);
+        bookTitleFilter.load();
+
+        assertFalse(bookTitleFilter.mightContain("New Title"));
+        bookTitleFilter.put("New Title");
+
+        assertTrue(bookTitleFilter.mightContain("New Title"));
+        assertEquals(1, meterRegistry.get("library.book.title-filter.lookups").tag("result", "negative").counter().count());
+        assertEquals(1, meterRegistry.get("library.book.title-filter.lookups").tag("result", "positive").counter().count());
+    }
+
+    @Test
+    public void testDisabledFilterAlwaysDefersToDatabase() {
+        bookProperties.getTitleFilter().setEnabled(false);
+        BookTitleFilter bookTitleFilter = new BookTitleFilter(bookRepository, bookProperties, transactionManager, meterRegistry);
+        bookTitleFilter.load();
+
+        assertTrue(bookTitleFilter.mightContain("Anything"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.library.bulk;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import",
+        "library.import.chunk-size=2"})
+@ActiveProfiles("test")
+public class CatalogImporterTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    public void testChunkFailingAtFlushIsRejectedAndImportContinues() {
+        // The title passes row validation but is longer than the column, so the chunk fails only when it is flushed.
+        String tooLong = "T".repeat(300);
+        String body = String.join("\n",
+                "{\"title\":\"Chunk One A\",\"author\":\"Author\"}",
+                "{\"title\":\"Chunk One B\",\"author\":\"Author\"}",
+                "{\"title\":\"" + tooLong + "\",\"author\":\"Author\"}",
+                "{\"title\":\"Chunk Two B\",\"author\":\"Author\"}",
+                "{\"title\":\"Chunk Two B\",\"author\":\"Retried After Rejection\"}",
+                "{\"title\":\"Chunk Three B\",\"author\":\"Author\"}");
+
+        ImportReportDto report = bookService.importBooks(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+
+        assertEquals(6, report.getRows());
+        assertEquals(4, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(3, report.getRejections().get(0).getLine());
+        assertEquals(4, report.getRejections().get(1).getLine());
+        assertTrue(report.getRejections().get(1).getReason().startsWith("Chunk rejected: "));
+        assertTrue(bookRepository.existsByTitle("Chunk One A"));
+        assertTrue(bookRepository.existsByTitle("Chunk Two B"));
+        assertTrue(bookRepository.existsByTitle("Chunk Three B"));
+        assertFalse(bookRepository.existsByTitle(tooLong));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.library.cache;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.BookService;
+import com.example.library.book.model.Book;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.ClientService;
+import com.example.library.client.model.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testClientLookupIsServedFromCache() {
+        Client client = clientRepository.save(Client.builder().firstName("Cached").lastName("Client").build());
+
+        clientService.getClientById(client.getId());
+        clientService.getClientById(client.getId());
+
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 2);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertNotNull(meterRegistry.find("cache.gets").tag("region", Client.class.getName()).tag("result", "hit").functionCounter());
+    }
+
+    @Test
+    public void testBlockBookInvalidatesCachedBook() {
+        Book book = bookRepository.save(Book.builder().title("Cached Book").author("Cached Author").available(true).build());
+        assertTrue(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+
+        bookService.blockBook(book.getId());
+
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+    }
+
+    @AfterEach
+    void teardown() {
+        bookRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+}
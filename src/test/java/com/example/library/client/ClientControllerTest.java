@@ -2,6 +2,7 @@ package com.example.library.client;
 
 import com.example.library.client.model.Client;
 import com.example.library.client.model.CreateClientCommand;
+import com.example.library.metrics.SqlStatements;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -101,7 +103,8 @@ public class ClientControllerTest {
         client.setLastName("TestLastName");
         client = clientRepository.save(client);
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/clients/" + client.getId()))
+        String path = "/api/clients/" + client.getId();
+        SqlStatements.assertAtMost(1, () -> mockMvc.perform(MockMvcRequestBuilders.get(path)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.firstName").value(client.getFirstName()))
                 .andExpect(jsonPath("$.lastName").value(client.getLastName()));
@@ -112,6 +115,83 @@ public class ClientControllerTest {
         assertEquals(client.getLastName(), retrievedClient.getLastName());
     }
 
+    @Test
+    public void shouldImportClientsFromCsv() throws Exception {
+        String body = String.join("\n",
+                "firstName,lastName",
+                "Anna,Nowak",
+                "\"Jan, Maria\",Kowalski",
+                ",Missing",
+                "Too,Many,Fields");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/clients/import")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejections[0].line").value(4))
+                .andExpect(jsonPath("$.rejections[0].reason").value("firstName cannot be blank"));
+
+        List<Client> clientsInDb = clientRepository.findAll();
+        assertTrue(clientsInDb.stream().anyMatch(client -> client.getFirstName().equals("Jan, Maria")));
+        assertTrue(clientsInDb.stream().anyMatch(client -> client.getLastName().equals("Nowak")));
+    }
+
+    @Test
+    public void shouldPageClientsByLastNameWithCursor() throws Exception {
+        clientRepository.save(Client.builder().firstName("Ala").lastName("Zielinska").build());
+        clientRepository.save(Client.builder().firstName("Ola").lastName("Adamska").build());
+
+        String response = mockMvc.perform(get("/api/clients/cursor").param("size", "1").param("sort", "lastName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].lastName").value("Adamska"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/clients/cursor").param("after", cursor).param("size", "1").param("sort", "lastName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lastName").value("Amigos"));
+    }
+
+    @Test
+    public void shouldServeNewClientPageAfterClientIsCreated() throws Exception {
+        String etag = mockMvc.perform(get("/api/clients"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/clients").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/clients")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateClientCommand("Etag", "Client"))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/clients").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.firstName == 'Etag')]").exists());
+    }
+
+    @Test
+    public void shouldFindClientsByMisspelledName() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/clients")
+                        .content(objectMapper.writeValueAsString(new CreateClientCommand("Grzegorz", "Brzęczyszczykiewicz")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/clients/search").param("name", "brzeczyszczykiewic"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName").value("Grzegorz"));
+
+        mockMvc.perform(get("/api/clients/search").param("name", "krystiano"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastName").value("Amigos"));
+    }
+
     @AfterEach
     void teardown() {
         clientRepository.deleteAll();
@@ -0,0 +1,95 @@
+package com.example.library.client;
+
+import com.example.library.BenchmarkData;
+import com.example.library.client.model.ClientDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClientSearchBenchmark {
+
+    private static final int LIMIT = 20;
+
+    private static final int FIRST_NAMES = 2_000;
+
+    private static final int LAST_NAMES = 50_000;
+
+    @Param({"100000", "1000000"})
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+
+    private ClientSearchIndex clientSearchIndex;
+
+    private String[] lastNames;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start("client-search-benchmark");
+        clientSearchIndex = context.getBean(ClientSearchIndex.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Random random = new Random(42);
+        String[] firstNames = words(random, FIRST_NAMES);
+        lastNames = words(random, LAST_NAMES);
+        BenchmarkData.insert(jdbcTemplate, "clients", "first_name, last_name", clients,
+                i -> new Object[]{firstNames[random.nextInt(FIRST_NAMES)], lastNames[random.nextInt(LAST_NAMES)]});
+        clientSearchIndex.reload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ClientDto> partialLastName() {
+        String lastName = randomLastName();
+        return clientSearchIndex.search(lastName.substring(0, lastName.length() - 2), LIMIT);
+    }
+
+    @Benchmark
+    public List<ClientDto> misspelledLastName() {
+        char[] lastName = randomLastName().toCharArray();
+        lastName[lastName.length / 2] = 'x';
+        return clientSearchIndex.search(new String(lastName), LIMIT);
+    }
+
+    private String randomLastName() {
+        return lastNames[ThreadLocalRandom.current().nextInt(LAST_NAMES)];
+    }
+
+    private static String[] words(Random random, int count) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 5 + random.nextInt(6); word.length() < length; ) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.library.client;
+
+import com.example.library.client.model.ClientDto;
+import com.example.library.client.model.ClientRemovedEvent;
+import com.example.library.client.model.ClientSavedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ClientSearchIndexTest {
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
+    private ClientSearchIndex clientSearchIndex;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(clientRepository.streamAllDtos()).thenReturn(Stream.of(
+                new ClientDto(1L, "Jan", "Kowalski"),
+                new ClientDto(2L, "Anna", "Kowalska"),
+                new ClientDto(3L, "Piotr", "Nowak"),
+                new ClientDto(4L, "Łucja", "Wiśniewska")));
+        clientSearchIndex = new ClientSearchIndex(clientRepository, new ClientProperties(), transactionManager, meterRegistry);
+        clientSearchIndex.reload();
+    }
+
+    @Test
+    public void testPartialInputMatchesAndRanksTheCloserName() {
+        assertEquals(List.of(1L, 2L), ids(clientSearchIndex.search("kowalski", 10)));
+        assertEquals(List.of(1L, 2L), ids(clientSearchIndex.search("Kowal", 10)));
+        assertEquals(List.of(3L), ids(clientSearchIndex.search("nowa", 10)));
+    }
+
+    @Test
+    public void testMisspelledAndUnaccentedInputStillMatches() {
+        assertEquals(List.of(1L), ids(clientSearchIndex.search("jan kowalsky", 1)));
+        assertEquals(List.of(4L), ids(clientSearchIndex.search("lucja wisniewska", 10)));
+        assertTrue(clientSearchIndex.search("zielinski", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> clientSearchIndex.search("...", 10));
+    }
+
+    @Test
+    public void testMatchesNeedMinSimilarityOfTheQueryTrigramsAndRankBySharedCount() {
+        // "kowalsk" shares 7 of its 8 trigrams with both Kowalski and Kowalska, which then tie and fall back to id.
+        assertEquals(List.of(1L, 2L), ids(clientSearchIndex.search("kowalsk", 10)));
+        // "kowalska" shares all 9 with Kowalska but only 7 with Kowalski.
+        assertEquals(List.of(2L, 1L), ids(clientSearchIndex.search("kowalska", 10)));
+
+        ClientProperties strict = new ClientProperties();
+        strict.getSearch().setMinSimilarity(1.0);
+        ClientSearchIndex strictIndex = new ClientSearchIndex(clientRepository, strict, transactionManager,
+                new SimpleMeterRegistry());
+        when(clientRepository.streamAllDtos()).thenReturn(Stream.of(
+                new ClientDto(1L, "Jan", "Kowalski"),
+                new ClientDto(2L, "Anna", "Kowalska")));
+        strictIndex.reload();
+
+        assertTrue(strictIndex.search("kowalsk", 10).isEmpty());
+        assertEquals(List.of(2L), ids(strictIndex.search("kowalska", 10)));
+    }
+
+    @Test
+    public void testCommittedChangesAreAppliedIncrementally() {
+        clientSearchIndex.onClientSaved(new ClientSavedEvent(3L, "Piotr", "Zieliński"));
+        clientSearchIndex.onClientRemoved(new ClientRemovedEvent(2L));
+
+        assertEquals(List.of(3L), ids(clientSearchIndex.search("zielinski", 10)));
+        assertEquals(List.of(1L), ids(clientSearchIndex.search("kowalska", 10)));
+    }
+
+    private static List<Long> ids(List<ClientDto> clients) {
+        return clients.stream().map(ClientDto::getId).toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.library.datagen;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:datagen")
+@ActiveProfiles("test")
+public class DatasetGeneratorTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2024, 1, 1);
+
+    private static final String SNAPSHOT = "SELECT r.id, c.first_name, c.last_name, b.title, b.author, " +
+            "r.start_date, r.end_date, r.returned FROM rentals r " +
+            "JOIN clients c ON c.id = r.client_id JOIN books b ON b.id = r.book_id ORDER BY r.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void init() {
+        jdbcTemplate.execute("DELETE FROM rentals");
+        jdbcTemplate.execute("DELETE FROM books");
+        jdbcTemplate.execute("DELETE FROM clients");
+    }
+
+    @Test
+    public void testGenerateWritesRequestedVolumes() {
+        DatasetReportDto report = generator(42).generate();
+
+        assertEquals(200, count("SELECT COUNT(*) FROM clients"));
+        assertEquals(500, count("SELECT COUNT(*) FROM books"));
+        assertEquals(5000, count("SELECT COUNT(*) FROM rentals"));
+        assertEquals(report.getOpenRentals(), count("SELECT COUNT(*) FROM rentals WHERE returned = false"));
+        assertEquals(report.getOverdueRentals(),
+                count("SELECT COUNT(*) FROM rentals WHERE returned = false AND end_date < DATE '2024-01-01'"));
+        assertTrue(report.getOverdueRentals() > 0);
+        assertTrue(count("SELECT COUNT(*) FROM rentals WHERE start_date > DATE '2024-01-01'") > 0);
+    }
+
+    @Test
+    public void testGenerateKeepsAtMostOneOpenRentalPerBook() {
+        generator(42).generate();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM (SELECT book_id FROM rentals WHERE returned = false " +
+                "GROUP BY book_id HAVING COUNT(*) > 1)"));
+        assertEquals(0, count("SELECT COUNT(*) FROM rentals WHERE returned = true AND end_date >= DATE '2024-01-01'"));
+    }
+
+    @Test
+    public void testGenerateSkewsRentalsTowardsFewBooks() {
+        generator(42).generate();
+
+        // Under Zipf(1) over 500 books the top 5% of books take roughly half of all rentals.
+        long top = count("SELECT SUM(rentals) FROM (SELECT COUNT(*) AS rentals FROM rentals " +
+                "GROUP BY book_id ORDER BY rentals DESC LIMIT 25)");
+        assertTrue(top > 2000, "top books took only " + top + " rentals");
+    }
+
+    @Test
+    public void testGenerateIsReproducibleForTheSameSeed() {
+        generator(42).generate();
+        List<Map<String, Object>> first = jdbcTemplate.queryForList(SNAPSHOT);
+        init();
+        generator(42).generate();
+        List<Map<String, Object>> second = jdbcTemplate.queryForList(SNAPSHOT);
+        init();
+        generator(7).generate();
+        List<Map<String, Object>> other = jdbcTemplate.queryForList(SNAPSHOT);
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    public void testGenerateMovesSequencesPastGeneratedIds() {
+        generator(42).generate();
+
+        long maxId = count("SELECT MAX(id) FROM books");
+        assertTrue(count("SELECT NEXT VALUE FOR books_seq") > maxId);
+    }
+
+    private DatasetGenerator generator(long seed) {
+        DatasetProperties settings = new DatasetProperties();
+        settings.setSeed(seed);
+        settings.setAsOf(AS_OF);
+        settings.setClients(200);
+        settings.setBooks(500);
+        settings.setRentals(5000);
+        settings.setBatchSize(128);
+        return new DatasetGenerator(jdbcTemplate, settings);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
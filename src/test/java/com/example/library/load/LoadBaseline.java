@@ -0,0 +1,61 @@
+package com.example.library.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Throughput and p99 expectations per operation, stored as JSON next to the tests. A run regresses when an
+// operation's throughput falls more than the tolerance below its baseline or its p99 rises more than the tolerance
+// above it. Operations missing from the baseline are not judged; regenerate the baseline to cover them.
+public record LoadBaseline(double tolerance, Map<String, Expectation> operations) {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static LoadBaseline read(InputStream json) throws IOException {
+        return OBJECT_MAPPER.readValue(json, LoadBaseline.class);
+    }
+
+    public static LoadBaseline of(double tolerance, Map<LoadOperation, LoadHarness.OperationStats> stats) {
+        Map<String, Expectation> operations = new LinkedHashMap<>();
+        stats.forEach((operation, measured) ->
+                operations.put(operation.key(), new Expectation(measured.throughput(), measured.p99Millis())));
+        return new LoadBaseline(tolerance, operations);
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        OBJECT_MAPPER.writeValue(file.toFile(), this);
+    }
+
+    public List<String> regressions(Map<LoadOperation, LoadHarness.OperationStats> stats) {
+        List<String> regressions = new ArrayList<>();
+        stats.forEach((operation, measured) -> {
+            Expectation expected = operations.get(operation.key());
+            if (expected == null) {
+                return;
+            }
+            double minThroughput = expected.throughput() * (1 - tolerance);
+            if (measured.throughput() < minThroughput) {
+                regressions.add(String.format("%s throughput %.1f/s is below %.1f/s (baseline %.1f/s)",
+                        operation.key(), measured.throughput(), minThroughput, expected.throughput()));
+            }
+            double maxP99 = expected.p99Millis() * (1 + tolerance);
+            if (measured.p99Millis() > maxP99) {
+                regressions.add(String.format("%s p99 %.2f ms is above %.2f ms (baseline %.2f ms)",
+                        operation.key(), measured.p99Millis(), maxP99, expected.p99Millis()));
+            }
+        });
+        return regressions;
+    }
+
+    public record Expectation(double throughput, double p99Millis) {
+    }
+}
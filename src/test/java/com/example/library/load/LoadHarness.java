@@ -0,0 +1,180 @@
+package com.example.library.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-model load generator. Every worker sends on a fixed schedule that together adds up to the target rate, and a
+// request's latency is taken from the moment it was scheduled to go out rather than the moment it actually went out.
+// A stalled server therefore charges the wait to every request queued behind the stall instead of silently slowing
+// the workers down, which is the coordinated-omission correction. Each worker records into its own histograms, which
+// are merged once the run is over, so the hot loop shares nothing between threads.
+public class LoadHarness {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Settings settings;
+
+    private final Driver driver;
+
+    public LoadHarness(Settings settings, Driver driver) {
+        this.settings = settings;
+        this.driver = driver;
+    }
+
+    public Map<LoadOperation, OperationStats> run() throws Exception {
+        long intervalNanos = Math.max(1, TimeUnit.SECONDS.toNanos(settings.workers()) / settings.rate());
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFromNanos = startNanos + settings.warmupSeconds() * TimeUnit.SECONDS.toNanos(1);
+        long endNanos = measureFromNanos + settings.durationSeconds() * TimeUnit.SECONDS.toNanos(1);
+
+        SplittableRandom root = new SplittableRandom(settings.seed());
+        ExecutorService executor = Executors.newFixedThreadPool(settings.workers());
+        List<Future<Recording>> recordings = new ArrayList<>();
+        try {
+            for (int worker = 0; worker < settings.workers(); worker++) {
+                SplittableRandom random = root.split();
+                // Stagger the workers across one interval so their requests do not leave in lockstep.
+                long firstNanos = startNanos + intervalNanos * worker / settings.workers();
+                recordings.add(executor.submit(() ->
+                        drive(random, firstNanos, intervalNanos, measureFromNanos, endNanos)));
+            }
+            Recording total = new Recording();
+            for (Future<Recording> recording : recordings) {
+                total.add(recording.get());
+            }
+            return total.summarize(total.lastCompletedNanos - measureFromNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Recording drive(SplittableRandom random, long firstNanos, long intervalNanos, long measureFromNanos,
+                            long endNanos) {
+        Recording recording = new Recording();
+        for (long intended = firstNanos; intended < endNanos; intended += intervalNanos) {
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            LoadOperation operation = pick(random);
+            boolean succeeded;
+            try {
+                succeeded = driver.execute(operation, random);
+            } catch (Exception ex) {
+                succeeded = false;
+            }
+            if (intended >= measureFromNanos) {
+                long completed = System.nanoTime();
+                recording.record(operation, completed - intended, succeeded);
+                recording.lastCompletedNanos = completed;
+            }
+        }
+        return recording;
+    }
+
+    private LoadOperation pick(SplittableRandom random) {
+        int ticket = random.nextInt(settings.totalWeight());
+        for (Map.Entry<LoadOperation, Integer> entry : settings.mix().entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty load mix");
+    }
+
+    @FunctionalInterface
+    public interface Driver {
+
+        // Issues one request and reports whether it succeeded.
+        boolean execute(LoadOperation operation, SplittableRandom random) throws Exception;
+
+    }
+
+    public record Settings(int workers, int rate, int warmupSeconds, int durationSeconds, long seed,
+                           Map<LoadOperation, Integer> mix) {
+
+        public Settings {
+            if (workers < 1 || rate < 1 || durationSeconds < 1) {
+                throw new IllegalArgumentException("Workers, rate and duration must be positive");
+            }
+            mix = new EnumMap<>(mix);
+        }
+
+        // Parses a mix such as "createRental:20,returnRental:10,getAllBooks:50,getClientRentals:20".
+        public static Map<LoadOperation, Integer> parseMix(String mix) {
+            Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                int weight = Integer.parseInt(parts[1].trim());
+                if (weight > 0) {
+                    weights.put(LoadOperation.fromKey(parts[0].trim()), weight);
+                }
+            }
+            return weights;
+        }
+
+        private int totalWeight() {
+            return mix.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    public record OperationStats(long count, long errors, double throughput, double p50Millis, double p99Millis,
+                                 double p999Millis, double maxMillis) {
+    }
+
+    private static final class Recording {
+
+        private final Map<LoadOperation, Histogram> latencies = new EnumMap<>(LoadOperation.class);
+
+        private final Map<LoadOperation, long[]> errors = new EnumMap<>(LoadOperation.class);
+
+        private long lastCompletedNanos = Long.MIN_VALUE;
+
+        private void record(LoadOperation operation, long latencyNanos, boolean succeeded) {
+            latencies.computeIfAbsent(operation, key -> new Histogram(SIGNIFICANT_DIGITS))
+                    .recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            if (!succeeded) {
+                errors.computeIfAbsent(operation, key -> new long[1])[0]++;
+            }
+        }
+
+        private void add(Recording other) {
+            other.latencies.forEach((operation, histogram) ->
+                    latencies.computeIfAbsent(operation, key -> new Histogram(SIGNIFICANT_DIGITS)).add(histogram));
+            other.errors.forEach((operation, count) ->
+                    errors.computeIfAbsent(operation, key -> new long[1])[0] += count[0]);
+            lastCompletedNanos = Math.max(lastCompletedNanos, other.lastCompletedNanos);
+        }
+
+        // Throughput is taken over the time it actually took to get through the measured schedule, so a server that
+        // falls behind shows up as lower throughput even though every scheduled request is eventually sent.
+        private Map<LoadOperation, OperationStats> summarize(long elapsedNanos) {
+            double elapsedSeconds = Math.max(elapsedNanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+            Map<LoadOperation, OperationStats> stats = new EnumMap<>(LoadOperation.class);
+            latencies.forEach((operation, histogram) -> stats.put(operation, new OperationStats(
+                    histogram.getTotalCount(),
+                    errors.getOrDefault(operation, new long[1])[0],
+                    histogram.getTotalCount() / elapsedSeconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()))));
+            return stats;
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
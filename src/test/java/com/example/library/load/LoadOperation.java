@@ -0,0 +1,28 @@
+package com.example.library.load;
+
+public enum LoadOperation {
+
+    CREATE_RENTAL("createRental"),
+    RETURN_RENTAL("returnRental"),
+    GET_ALL_BOOKS("getAllBooks"),
+    GET_CLIENT_RENTALS("getClientRentals");
+
+    private final String key;
+
+    LoadOperation(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static LoadOperation fromKey(String key) {
+        for (LoadOperation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load operation " + key);
+    }
+}
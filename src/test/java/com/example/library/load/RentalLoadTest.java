@@ -0,0 +1,177 @@
+package com.example.library.load;
+
+import com.example.library.datagen.DatasetGenerator;
+import com.example.library.datagen.DatasetProperties;
+import com.example.library.datagen.ZipfDistribution;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives a mix of rental and catalog requests against the embedded server and compares throughput and p99 per
+// operation with load-baseline.json. Excluded from the regular build; run it with
+//
+//   mvn -Pload test [-Dload.rate=800] [-Dload.workers=64] [-Dlibrary.rental.booking-mode=QUEUED]
+//
+// and pass -Dload.baseline.update=true to write the measured numbers to target/load-baseline.json for review before
+// they replace the stored baseline. The measured numbers always go to target/load-report.json.
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load",
+        "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+public class RentalLoadTest {
+
+    private static final String DEFAULT_MIX = "createRental:20,returnRental:10,getAllBooks:50,getClientRentals:20";
+
+    // Bookings land somewhere in the century after this day, so they rarely collide with each other or with the
+    // generated history except on the hottest books.
+    private static final LocalDate BOOKING_START = LocalDate.of(2100, 1, 1);
+
+    private static final int BOOKING_DAYS = 36_500;
+
+    private static final int BOOK_PAGES = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private long[] bookIds;
+
+    private long[] clientIds;
+
+    private ZipfDistribution popularity;
+
+    private final Queue<Long> openRentals = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void init() {
+        DatasetProperties dataset = new DatasetProperties();
+        dataset.setSeed(Long.getLong("load.seed", 42));
+        dataset.setClients(Integer.getInteger("load.clients", 10_000));
+        dataset.setBooks(Integer.getInteger("load.books", 10_000));
+        dataset.setRentals(Integer.getInteger("load.rentals", 200_000));
+        new DatasetGenerator(jdbcTemplate, dataset).generate();
+
+        bookIds = ids("SELECT id FROM books ORDER BY id");
+        clientIds = ids("SELECT id FROM clients ORDER BY id");
+        popularity = new ZipfDistribution(bookIds.length, Double.parseDouble(System.getProperty("load.skew", "1.0")));
+        openRentals.addAll(jdbcTemplate.queryForList("SELECT id FROM rentals WHERE returned = false", Long.class));
+    }
+
+    @Test
+    public void testRentalMixMeetsBaseline() throws Exception {
+        LoadHarness.Settings settings = new LoadHarness.Settings(
+                Integer.getInteger("load.workers", 32),
+                Integer.getInteger("load.rate", 400),
+                Integer.getInteger("load.warmup", 10),
+                Integer.getInteger("load.duration", 30),
+                Long.getLong("load.seed", 42),
+                LoadHarness.Settings.parseMix(System.getProperty("load.mix", DEFAULT_MIX)));
+
+        Map<LoadOperation, LoadHarness.OperationStats> stats = new LoadHarness(settings, this::execute).run();
+
+        LoadBaseline baseline;
+        try (InputStream json = getClass().getResourceAsStream("/load-baseline.json")) {
+            assertNotNull(json, "load-baseline.json is missing");
+            baseline = LoadBaseline.read(json);
+        }
+        double tolerance = Double.parseDouble(System.getProperty("load.tolerance", String.valueOf(baseline.tolerance())));
+        LoadBaseline measured = LoadBaseline.of(tolerance, stats);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(Path.of("target", "load-report.json").toFile(), stats);
+        if (Boolean.getBoolean("load.baseline.update")) {
+            measured.write(Path.of("target", "load-baseline.json"));
+        }
+
+        List<String> regressions = new LoadBaseline(tolerance, baseline.operations()).regressions(stats);
+        assertTrue(regressions.isEmpty(), String.join("\n", regressions));
+    }
+
+    private boolean execute(LoadOperation operation, SplittableRandom random) throws Exception {
+        return switch (operation) {
+            case CREATE_RENTAL -> createRental(random);
+            case RETURN_RENTAL -> returnRental(random);
+            case GET_ALL_BOOKS -> send(get("/api/books?page=" + random.nextInt(BOOK_PAGES) + "&size=20")).statusCode() == 200;
+            case GET_CLIENT_RENTALS -> send(get("/api/rentals/client/" + randomClient(random) + "/rentals")).statusCode() == 200;
+        };
+    }
+
+    private boolean createRental(SplittableRandom random) throws Exception {
+        LocalDate start = BOOKING_START.plusDays(random.nextInt(BOOKING_DAYS));
+        CreateRentalCommand command = new CreateRentalCommand(randomClient(random),
+                bookIds[popularity.sample(random)], start, start.plusDays(random.nextInt(14)));
+        HttpResponse<String> response = send(request("/api/rentals")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(command)))
+                .build());
+        if (response.statusCode() != 201) {
+            return false;
+        }
+        openRentals.add(objectMapper.readTree(response.body()).get("id").asLong());
+        return true;
+    }
+
+    // Returns a rental that is still out; when none is left the request turns into a booking instead.
+    private boolean returnRental(SplittableRandom random) throws Exception {
+        Long id = openRentals.poll();
+        if (id == null) {
+            return createRental(random);
+        }
+        return send(request("/api/rentals/" + id + "/return")
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build()).statusCode() == 200;
+    }
+
+    private long randomClient(SplittableRandom random) {
+        return clientIds[random.nextInt(clientIds.length)];
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long[] ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.library.metrics;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.Book;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testPrometheusEndpointExposesBookingPathMetrics() throws Exception {
+        Client client = clientRepository.save(Client.builder().firstName("Metered").lastName("Reader").build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Metered Book").author("Metered Author").available(true).build());
+        CreateRentalCommand command = new CreateRentalCommand(client.getId(), book.getId(),
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 10));
+
+        mockMvc.perform(post("/api/rentals")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/api/rentals\"")))
+                .andExpect(content().string(containsString("library_lock_wait_seconds_bucket{lock=\"book\"")))
+                .andExpect(content().string(containsString("library_transaction_seconds_bucket{outcome=\"commit\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString(
+                        "method=\"existsByBookIdAndStartLessThanEqualAndEndGreaterThanEqual\"")));
+    }
+
+    @Test
+    public void testRolledBackTransactionsAreTimedSeparately() {
+        double before = rolledBack();
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            throw new IllegalStateException("rolled back");
+        }));
+        // Joining a running transaction does not begin a second one.
+        transactionTemplate.executeWithoutResult(outer -> transactionTemplate.executeWithoutResult(inner -> {
+        }));
+
+        assertEquals(before + 1, rolledBack());
+    }
+
+    private double rolledBack() {
+        return meterRegistry.get("library.transaction").tag("outcome", "rollback").timer().count();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.library.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Cost of the timers on the booking path, configured as in application.yml, next to the bare call they wrap. The
+// locking query they time takes tens of microseconds, so the timer should stay in the tens of nanoseconds.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class MetricsOverheadBenchmark {
+
+    private PrometheusMeterRegistry meterRegistry;
+
+    private LockWaitTimers lockWaitTimers;
+
+    private Timer histogramTimer;
+
+    @Setup
+    public void setUp() {
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofNanos(100_000).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        });
+        lockWaitTimers = new LockWaitTimers(meterRegistry);
+        histogramTimer = meterRegistry.timer("library.transaction", "outcome", "commit");
+    }
+
+    @Benchmark
+    public void bare(Blackhole blackhole) {
+        blackhole.consume(work());
+    }
+
+    @Benchmark
+    public void lockWaitTimer(Blackhole blackhole) {
+        blackhole.consume(lockWaitTimers.acquire("book", MetricsOverheadBenchmark::work));
+    }
+
+    @Benchmark
+    public void histogramTimer(Blackhole blackhole) {
+        long startedAt = System.nanoTime();
+        blackhole.consume(work());
+        histogramTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private static Object work() {
+        Blackhole.consumeCPU(16);
+        return Boolean.TRUE;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.library.metrics;
+
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-statements",
+        "library.sql.response-headers=true",
+        "library.sql.repeated-statement-threshold=3"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class SqlStatementFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private SqlStatementFilter sqlStatementFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testRequestReportsItsStatementsInHeadersAndMetrics() throws Exception {
+        Client client = clientRepository.save(Client.builder().firstName("Counted").lastName("Reader").build());
+
+        SqlStatements.assertAtMost(1, () -> mockMvc.perform(get("/api/rentals/client/{id}/rentals", client.getId())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementHeaderAdvice.STATEMENTS_HEADER, "1"))
+                .andExpect(header().string(SqlStatementHeaderAdvice.TIME_HEADER, matchesPattern("\\d+")));
+
+        assertTrue(meterRegistry.get("library.sql.statements")
+                .tag("uri", "/api/rentals/client/{id}/rentals").summary().count() > 0);
+    }
+
+    @Test
+    public void testRepeatedStatementIsFlaggedAsLikelyNPlusOne() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/repeated");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/repeated");
+
+        // Misses on unknown ids are not cached, so each lookup runs the same select again.
+        sqlStatementFilter.doFilter(request, new MockHttpServletResponse(), (req, res) ->
+                LongStream.rangeClosed(1, 3).forEach(id -> clientRepository.findById(-id)));
+
+        assertEquals(1, meterRegistry.get("library.sql.repeated").tag("uri", "/repeated").counter().count());
+        assertEquals(3, meterRegistry.get("library.sql.statements").tag("uri", "/repeated").summary().totalAmount());
+    }
+
+    @Test
+    public void testRequestLeavesNoStatementOnTheThread() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/forgotten");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/forgotten");
+
+        sqlStatementFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> clientRepository.count());
+
+        assertNull(SqlStatementCounter.executed(0));
+    }
+
+    @Test
+    public void testAssertionFailsWhenCallIssuesTooManyStatements() {
+        assertThrows(AssertionError.class, () -> SqlStatements.assertAtMost(0, () -> clientRepository.count()));
+    }
+}
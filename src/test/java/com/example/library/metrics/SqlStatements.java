@@ -0,0 +1,40 @@
+package com.example.library.metrics;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Assertions on the SQL a call issues on the calling thread, for example
+//
+//   SqlStatements.assertAtMost(1, () -> mockMvc.perform(get("/api/clients/{id}", id)))
+//           .andExpect(status().isOk());
+//
+// MockMvc runs the request on the test thread, so the statements the request filter counts are included.
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    public static <T> T assertAtMost(int max, Callable<T> call) throws Exception {
+        T result;
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            result = call.call();
+        } finally {
+            scope.close();
+        }
+        if (scope.getStatements() > max) {
+            fail("Expected at most " + max + " SQL statements but " + scope.getStatements() + " were issued:\n"
+                    + describe(scope.getShapes()));
+        }
+        return result;
+    }
+
+    private static String describe(Map<String, Integer> shapes) {
+        return shapes.entrySet().stream()
+                .map(shape -> shape.getValue() + " x " + shape.getKey())
+                .collect(Collectors.joining("\n"));
+    }
+}
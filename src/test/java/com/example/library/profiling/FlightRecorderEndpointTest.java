@@ -0,0 +1,97 @@
+package com.example.library.profiling;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.Book;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.profiling.model.ProfilingSummaryDto;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:profiling",
+        "library.profiling.enabled=true",
+        "library.profiling.dump-directory=target/jfr"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class FlightRecorderEndpointTest {
+
+    private static final long STREAM_TIMEOUT_MILLIS = 15_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private FlightRecorderService flightRecorderService;
+
+    @Test
+    public void testSummaryCountsLibraryEvents() throws Exception {
+        Client client = clientRepository.save(Client.builder().firstName("Profiled").lastName("Reader").build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Profiled Book").author("Profiled Author").available(true).build());
+        CreateRentalCommand command = new CreateRentalCommand(client.getId(), book.getId(),
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 10));
+
+        mockMvc.perform(post("/api/rentals")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk());
+
+        // The event stream delivers about once a second, so wait for both events to come through.
+        long deadline = System.currentTimeMillis() + STREAM_TIMEOUT_MILLIS;
+        ProfilingSummaryDto summary = flightRecorderService.summary();
+        while (!(summary.getOperations().containsKey("library.RentalBooking")
+                && summary.getOperations().containsKey("library.CatalogListing"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+            summary = flightRecorderService.summary();
+        }
+        assertTrue(summary.getOperations().containsKey("library.RentalBooking"), "no booking event was streamed");
+
+        mockMvc.perform(get("/actuator/jfr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recording").value(true))
+                .andExpect(jsonPath("$.operations['library.RentalBooking'].count").value(1))
+                .andExpect(jsonPath("$.operations['library.CatalogListing'].count").value(1));
+    }
+
+    @Test
+    public void testDumpReturnsFlightRecording() throws Exception {
+        byte[] dump = mockMvc.perform(get("/actuator/jfr/dump").param("minutes", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertTrue(dump.length > 4);
+        byte[] magic = new byte[4];
+        System.arraycopy(dump, 0, magic, 0, 4);
+        assertArrayEquals("FLR\0".getBytes(StandardCharsets.US_ASCII), magic);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.library.rental;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.Book;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.rental.model.OverdueScanReportDto;
+import com.example.library.rental.model.Rental;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:overdue",
+        "library.rental.overdue.chunk-size=4",
+        "library.rental.overdue.batch-size=2"})
+@ActiveProfiles("test")
+public class OverdueScannerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 6, 15);
+
+    @Autowired
+    private OverdueScanner overdueScanner;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Client client;
+
+    private Book book;
+
+    @BeforeEach
+    void init() {
+        rentalRepository.deleteAll();
+        client = clientRepository.save(Client.builder().firstName("Late").lastName("Reader").build());
+        book = bookRepository.save(Book.builder().title("Overdue Book").author("Overdue Author").available(true).build());
+    }
+
+    @Test
+    public void testScanAccruesDailyFeeUpToTheCap() {
+        Rental threeDays = rent(TODAY.minusDays(3), false);
+        Rental longOverdue = rent(TODAY.minusDays(100), false);
+        Rental returned = rent(TODAY.minusDays(5), true);
+        Rental dueToday = rent(TODAY, false);
+
+        OverdueScanReportDto report = overdueScanner.scan(TODAY);
+
+        assertEquals(2, report.getScanned());
+        assertEquals(2, report.getUpdated());
+        assertEquals(new BigDecimal("1.50"), fee(threeDays));
+        assertEquals(new BigDecimal("20.00"), fee(longOverdue));
+        assertEquals(new BigDecimal("0.00"), fee(returned));
+        assertEquals(new BigDecimal("0.00"), fee(dueToday));
+    }
+
+    @Test
+    public void testScanOnlyRevisitsRentalsWhoseFeeCanStillGrow() {
+        Rental accruing = rent(TODAY.minusDays(1), false);
+        Rental capped = rent(TODAY.minusDays(100), false);
+        overdueScanner.scan(TODAY);
+
+        assertEquals(0, overdueScanner.scan(TODAY).getScanned());
+
+        Rental newlyOverdue = rent(TODAY, false);
+        OverdueScanReportDto nextDay = overdueScanner.scan(TODAY.plusDays(1));
+
+        assertEquals(2, nextDay.getScanned());
+        assertEquals(new BigDecimal("1.00"), fee(accruing));
+        assertEquals(new BigDecimal("0.50"), fee(newlyOverdue));
+        assertEquals(new BigDecimal("20.00"), fee(capped));
+    }
+
+    @Test
+    public void testScanSplitsChunksIntoBatchesAndRecordsMetrics() {
+        for (int i = 1; i <= 11; i++) {
+            rent(TODAY.minusDays(i), false);
+        }
+        double updatedBefore = meterRegistry.counter("library.rental.overdue.rows", "stage", "updated").count();
+
+        OverdueScanReportDto report = overdueScanner.scan(TODAY);
+
+        assertEquals(11, report.getScanned());
+        assertEquals(11, report.getUpdated());
+        assertEquals(11, meterRegistry.counter("library.rental.overdue.rows", "stage", "updated").count() - updatedBefore);
+        assertEquals(11, meterRegistry.get("library.rental.overdue.last.run.rows").gauge().value());
+        assertTrue(meterRegistry.timer("library.rental.overdue.runs").count() > 0);
+        assertEquals(11, rentalRepository.findAll().stream()
+                .filter(rental -> TODAY.equals(rental.getFeeAccruedUntil()))
+                .count());
+    }
+
+    @AfterEach
+    void teardown() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    private Rental rent(LocalDate end, boolean returned) {
+        return rentalRepository.save(Rental.builder()
+                .client(client)
+                .book(book)
+                .start(end.minusDays(7))
+                .end(end)
+                .returned(returned)
+                .build());
+    }
+
+    private BigDecimal fee(Rental rental) {
+        return rentalRepository.findById(rental.getId()).orElseThrow().getLateFee();
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.library.rental;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.Book;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.exception.BookingConflictException;
+import com.example.library.metrics.LockWaitTimers;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.example.library.rental.model.RentalDto;
+import com.example.library.rental.model.RentalMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-queue",
+        "library.rental.booking-mode=queued"})
+@ActiveProfiles("test")
+public class RentalBookingQueueTest {
+
+    private static final int REQUESTS = 32;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalMapper rentalMapper;
+
+    @Autowired
+    private RentalOverlapChecker rentalOverlapChecker;
+
+    @Autowired
+    private RentalProperties rentalProperties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LockWaitTimers lockWaitTimers;
+
+    private Client client;
+
+    private Book book;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    void init() {
+        client = clientRepository.saveAndFlush(Client.builder()
+                .firstName("Alice")
+                .lastName("Smith")
+                .build());
+        book = bookRepository.saveAndFlush(Book.builder()
+                .title("Queued Book")
+                .author("Queued Author")
+                .available(true)
+                .build());
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @Test
+    public void shouldAcceptOnlyOneOfConcurrentOverlappingBookings() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(1);
+
+        List<String> outcomes = bookConcurrently(i -> start, i -> start.plusDays(3));
+
+        assertEquals(1, outcomes.stream().filter("created"::equals).count());
+        assertEquals(REQUESTS - 1, outcomes.stream().filter(IllegalStateException.class.getSimpleName()::equals).count());
+        assertEquals(1, rentalRepository.findByClientId(client.getId()).size());
+    }
+
+    @Test
+    public void shouldAcceptAllConcurrentDisjointBookings() throws Exception {
+        LocalDate origin = LocalDate.now().plusDays(1);
+
+        List<String> outcomes = bookConcurrently(i -> origin.plusDays(2L * i), i -> origin.plusDays(2L * i));
+
+        assertEquals(REQUESTS, outcomes.stream().filter("created"::equals).count());
+        assertEquals(REQUESTS, rentalRepository.findByClientId(client.getId()).size());
+    }
+
+    @Test
+    public void shouldFailBookingsSubmittedAfterShutdown() {
+        RentalBookingQueue queue = new RentalBookingQueue(rentalRepository, clientRepository, bookRepository,
+                rentalMapper, rentalOverlapChecker, rentalProperties, transactionTemplate, meterRegistry,
+                lockWaitTimers);
+        queue.shutdown();
+        LocalDate start = LocalDate.now().plusDays(1);
+
+        CompletableFuture<RentalDto> result = queue.submit(
+                new CreateRentalCommand(client.getId(), book.getId(), start, start.plusDays(3)));
+
+        CompletionException ex = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(BookingConflictException.class, ex.getCause());
+        assertEquals(0, rentalRepository.findByClientId(client.getId()).size());
+    }
+
+    @Test
+    public void shouldTimeOutOnlyBookingsNoBatchHasClaimed() throws Exception {
+        RentalProperties properties = new RentalProperties();
+        properties.getQueue().setWorkers(1);
+        properties.getQueue().setMaxBatchSize(1);
+        properties.getQueue().setTimeout(Duration.ofMillis(200));
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LockWaitTimers slowLock = new LockWaitTimers(meterRegistry) {
+            @Override
+            public <T> T acquire(String lock, Supplier<T> locking) {
+                claimed.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.acquire(lock, locking);
+            }
+        };
+        RentalBookingQueue queue = new RentalBookingQueue(rentalRepository, clientRepository, bookRepository,
+                rentalMapper, rentalOverlapChecker, properties, transactionTemplate, meterRegistry, slowLock);
+        LocalDate start = LocalDate.now().plusDays(1);
+        try {
+            CompletableFuture<RentalDto> first = queue.submit(
+                    new CreateRentalCommand(client.getId(), book.getId(), start, start.plusDays(1)));
+            claimed.await();
+            CompletableFuture<RentalDto> second = queue.submit(
+                    new CreateRentalCommand(client.getId(), book.getId(), start.plusDays(5), start.plusDays(6)));
+
+            CompletionException ex = assertThrows(CompletionException.class, second::join);
+            assertInstanceOf(BookingConflictException.class, ex.getCause());
+
+            release.countDown();
+            assertEquals(start, first.join().getStart());
+        } finally {
+            release.countDown();
+            queue.shutdown();
+        }
+        assertEquals(1, rentalRepository.findByClientId(client.getId()).size());
+    }
+
+    private List<String> bookConcurrently(DateForRequest startOf, DateForRequest endOf) throws Exception {
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            CreateRentalCommand command = new CreateRentalCommand(client.getId(), book.getId(), startOf.at(i), endOf.at(i));
+            futures.add(callers.submit(() -> {
+                try {
+                    rentalService.createRental(command);
+                    return "created";
+                } catch (RuntimeException ex) {
+                    return ex.getClass().getSimpleName();
+                }
+            }));
+        }
+        List<String> outcomes = new ArrayList<>();
+        for (Future<String> future : futures) {
+            outcomes.add(future.get());
+        }
+        return outcomes;
+    }
+
+    @AfterEach
+    void teardown() {
+        callers.shutdownNow();
+        rentalRepository.deleteAll();
+        clientRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    private interface DateForRequest {
+        LocalDate at(int request);
+    }
+}
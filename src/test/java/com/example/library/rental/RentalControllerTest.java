@@ -4,8 +4,10 @@ import com.example.library.book.BookRepository;
 import com.example.library.book.model.Book;
 import com.example.library.client.ClientRepository;
 import com.example.library.client.model.Client;
+import com.example.library.metrics.SqlStatements;
 import com.example.library.rental.model.CreateRentalCommand;
 import com.example.library.rental.model.Rental;
+import com.example.library.rental.model.RentalDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +18,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -25,7 +28,9 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -109,6 +114,33 @@ class RentalControllerTest {
 
     }
 
+    @Test
+    void shouldCreateRentalsInBatchReportingEachItem() throws Exception {
+        List<CreateRentalCommand> commands = List.of(
+                new CreateRentalCommand(client.getId(), book.getId(), LocalDate.now().plusDays(8), LocalDate.now().plusDays(9)),
+                new CreateRentalCommand(client.getId(), book.getId(), LocalDate.now().plusDays(9), LocalDate.now().plusDays(10)),
+                new CreateRentalCommand(client.getId(), book.getId(), LocalDate.now().plusDays(2), LocalDate.now().plusDays(3)),
+                new CreateRentalCommand(-1L, book.getId(), LocalDate.now().plusDays(20), LocalDate.now().plusDays(21)),
+                new CreateRentalCommand(client.getId(), book.getId(), LocalDate.now().plusDays(30), LocalDate.now().plusDays(31)));
+
+        mockMvc.perform(post("/api/rentals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(commands)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.items", hasSize(5)))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].rental.bookId").value(book.getId()))
+                .andExpect(jsonPath("$.items[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[3].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[3].error").value("Client not found with id : '-1'"))
+                .andExpect(jsonPath("$.items[4].status").value("CREATED"));
+
+        assertEquals(3, rentalRepository.findByClientId(client.getId()).size());
+    }
+
     @Test
     void shouldReturnRental() throws Exception {
         mockMvc.perform(put("/api/rentals/{id}/return", rental.getId()))
@@ -125,23 +157,121 @@ class RentalControllerTest {
         assertTrue(updatedRental.get().isReturned());
     }
 
+    @Test
+    void shouldReturnRentalsIdempotently() throws Exception {
+        Rental second = rentalRepository.saveAndFlush(Rental.builder()
+                .book(book)
+                .client(client)
+                .start(LocalDate.now().plusDays(10))
+                .end(LocalDate.now().plusDays(12))
+                .returned(false)
+                .build());
+        long missingId = second.getId() + 1000;
+        String ids = objectMapper.writeValueAsString(List.of(rental.getId(), second.getId(), missingId, rental.getId()));
+
+        mockMvc.perform(put("/api/rentals/return").contentType(MediaType.APPLICATION_JSON).content(ids))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returned").value(2))
+                .andExpect(jsonPath("$.alreadyReturned").value(0))
+                .andExpect(jsonPath("$.notFound").value(1))
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].status").value("RETURNED"))
+                .andExpect(jsonPath("$.items[0].rental.returned").value(true))
+                .andExpect(jsonPath("$.items[2].id").value(missingId))
+                .andExpect(jsonPath("$.items[2].status").value("NOT_FOUND"));
+
+        mockMvc.perform(put("/api/rentals/return").contentType(MediaType.APPLICATION_JSON).content(ids))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returned").value(0))
+                .andExpect(jsonPath("$.alreadyReturned").value(2));
+
+        assertTrue(rentalRepository.findById(second.getId()).orElseThrow().isReturned());
+        assertEquals(1, rentalRepository.findById(rental.getId()).orElseThrow().getVersion() - rental.getVersion());
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownRental() throws Exception {
+        mockMvc.perform(put("/api/rentals/{id}/return", rental.getId() + 1000))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldGetClientRentals() throws Exception {
-        mockMvc.perform(get("/api/rentals/client/{id}/rentals", client.getId()))
+        SqlStatements.assertAtMost(1, () -> mockMvc.perform(get("/api/rentals/client/{id}/rentals", client.getId())))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].id").value(rental.getId()))
-                .andExpect(jsonPath("$[0].clientId").value(rental.getClientId()))
-                .andExpect(jsonPath("$[0].bookId").value(rental.getBookId()))
-                .andExpect(jsonPath("$[0].start").value(rental.getStart().toString()))
-                .andExpect(jsonPath("$[0].end").value(rental.getEnd().toString()))
-                .andExpect(jsonPath("$[0].returned").value(false));
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(rental.getId()))
+                .andExpect(jsonPath("$.content[0].clientId").value(rental.getClientId()))
+                .andExpect(jsonPath("$.content[0].bookId").value(rental.getBookId()))
+                .andExpect(jsonPath("$.content[0].start").value(rental.getStart().toString()))
+                .andExpect(jsonPath("$.content[0].end").value(rental.getEnd().toString()))
+                .andExpect(jsonPath("$.content[0].returned").value(false))
+                .andExpect(jsonPath("$.hasNext").value(false));
 
         List<Rental> rentalsFromRepo = rentalRepository.findByClientId(client.getId());
         assertEquals(1, rentalsFromRepo.size());
         assertEquals(rental.getId(), rentalsFromRepo.get(0).getId());
     }
 
+    @Test
+    void shouldPageClientRentalsNewestFirstWithFilters() throws Exception {
+        rentalRepository.saveAndFlush(Rental.builder().book(book).client(client)
+                .start(LocalDate.now().plusDays(10)).end(LocalDate.now().plusDays(12)).returned(true).build());
+        Rental newest = rentalRepository.saveAndFlush(Rental.builder().book(book).client(client)
+                .start(LocalDate.now().plusDays(20)).end(LocalDate.now().plusDays(22)).returned(false).build());
+
+        String response = mockMvc.perform(get("/api/rentals/client/{id}/rentals", client.getId())
+                        .param("returned", "false")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(newest.getId()))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/rentals/client/{id}/rentals", client.getId())
+                        .param("returned", "false")
+                        .param("size", "1")
+                        .param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(rental.getId()))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(get("/api/rentals/client/{id}/rentals", client.getId())
+                        .param("from", LocalDate.now().plusDays(11).toString())
+                        .param("to", LocalDate.now().plusDays(15).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].returned").value(true));
+    }
+
+    @Test
+    void shouldExportRentalsCreatedAfterGivenId() throws Exception {
+        Rental later = rentalRepository.saveAndFlush(Rental.builder()
+                .book(book)
+                .client(client)
+                .start(LocalDate.now().plusDays(10))
+                .end(LocalDate.now().plusDays(12))
+                .returned(false)
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/rentals/export").param("since", rental.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(1, lines.size());
+        RentalDto exported = objectMapper.readValue(lines.get(0), RentalDto.class);
+        assertEquals(later.getId(), exported.getId());
+        assertEquals(client.getId(), exported.getClientId());
+        assertEquals(book.getId(), exported.getBookId());
+    }
+
     @AfterEach
     void teardown() {
         rentalRepository.deleteAll();
@@ -0,0 +1,171 @@
+package com.example.library.rental;
+
+import com.example.library.rental.model.RentalPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RentalIntervalIndexTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2023, 1, 1);
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RentalIntervalIndex rentalIntervalIndex;
+
+    @BeforeEach
+    void init() {
+        RentalProperties rentalProperties = new RentalProperties();
+        rentalProperties.getOverlapIndex().setEnabled(true);
+        rentalIntervalIndex = new RentalIntervalIndex(rentalRepository, rentalProperties, transactionManager);
+    }
+
+    @Test
+    public void testOverlapsDetectsEveryKindOfOverlap() {
+        rentalIntervalIndex.add(period(1L, 1L, 5, 10));
+
+        assertTrue(rentalIntervalIndex.overlaps(1L, day(1), day(5)));
+        assertTrue(rentalIntervalIndex.overlaps(1L, day(10), day(12)));
+        assertTrue(rentalIntervalIndex.overlaps(1L, day(6), day(7)));
+        assertTrue(rentalIntervalIndex.overlaps(1L, day(1), day(20)));
+        assertFalse(rentalIntervalIndex.overlaps(1L, day(1), day(4)));
+        assertFalse(rentalIntervalIndex.overlaps(1L, day(11), day(20)));
+        assertFalse(rentalIntervalIndex.overlaps(2L, day(5), day(10)));
+    }
+
+    @Test
+    public void testOverlapsConsidersLongIntervalStartingEarlier() {
+        rentalIntervalIndex.add(period(1L, 1L, 1, 30));
+        rentalIntervalIndex.add(period(2L, 1L, 3, 4));
+        rentalIntervalIndex.add(period(3L, 1L, 10, 12));
+
+        assertTrue(rentalIntervalIndex.overlaps(1L, day(20), day(25)));
+    }
+
+    @Test
+    public void testRemoveFreesThePeriod() {
+        RentalPeriod first = period(1L, 1L, 5, 10);
+        RentalPeriod second = period(2L, 1L, 15, 20);
+        rentalIntervalIndex.add(first);
+        rentalIntervalIndex.add(second);
+
+        rentalIntervalIndex.remove(first);
+
+        assertFalse(rentalIntervalIndex.overlaps(1L, day(5), day(10)));
+        assertTrue(rentalIntervalIndex.overlaps(1L, day(15), day(15)));
+
+        rentalIntervalIndex.remove(second);
+
+        assertFalse(rentalIntervalIndex.overlaps(1L, day(1), day(30)));
+    }
+
+    @Test
+    public void testPeriodsReturnsOverlappingIntervalsInStartOrder() {
+        rentalIntervalIndex.add(period(3L, 1L, 20, 25));
+        rentalIntervalIndex.add(period(1L, 1L, 1, 12));
+        rentalIntervalIndex.add(period(2L, 1L, 5, 6));
+
+        List<Long> ids = rentalIntervalIndex.periods(1L, day(8), day(21)).stream().map(RentalPeriod::getId).toList();
+
+        assertEquals(List.of(1L, 3L), ids);
+    }
+
+    @Test
+    public void testReloadReplacesContentWithActivePeriods() {
+        rentalIntervalIndex.add(period(1L, 1L, 5, 10));
+        when(rentalRepository.streamActivePeriods()).thenReturn(Stream.of(period(2L, 2L, 5, 10)));
+
+        rentalIntervalIndex.reload();
+
+        assertFalse(rentalIntervalIndex.overlaps(1L, day(5), day(10)));
+        assertTrue(rentalIntervalIndex.overlaps(2L, day(5), day(10)));
+    }
+
+    @Test
+    public void testTransactionalChangesArePublishedAroundCommit() {
+        RentalPeriod returned = period(1L, 1L, 5, 10);
+        rentalIntervalIndex.add(returned);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            rentalIntervalIndex.add(period(2L, 1L, 15, 20));
+            rentalIntervalIndex.remove(returned);
+
+            assertTrue(rentalIntervalIndex.overlaps(1L, day(15), day(20)));
+            assertFalse(rentalIntervalIndex.overlaps(1L, day(5), day(10)));
+            assertFalse(elsewhere(() -> rentalIntervalIndex.overlaps(1L, day(15), day(20))));
+            assertTrue(elsewhere(() -> rentalIntervalIndex.overlaps(1L, day(5), day(10))));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+
+            assertTrue(elsewhere(() -> rentalIntervalIndex.overlaps(1L, day(15), day(20))));
+            assertTrue(elsewhere(() -> rentalIntervalIndex.overlaps(1L, day(5), day(10))));
+
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(TransactionSynchronizationManager.getResource(rentalIntervalIndex));
+        assertTrue(rentalIntervalIndex.overlaps(1L, day(15), day(20)));
+        assertFalse(rentalIntervalIndex.overlaps(1L, day(5), day(10)));
+    }
+
+    @Test
+    public void testRolledBackChangesAreNeverSeenOutsideTheTransaction() {
+        RentalPeriod booked = period(1L, 1L, 5, 10);
+        rentalIntervalIndex.add(booked);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            rentalIntervalIndex.add(period(2L, 1L, 15, 20));
+            rentalIntervalIndex.remove(booked);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(rentalIntervalIndex.overlaps(1L, day(15), day(20)));
+        assertTrue(rentalIntervalIndex.overlaps(1L, day(5), day(10)));
+    }
+
+    // Runs a lookup on another thread, which sees only what has been published.
+    private static boolean elsewhere(BooleanSupplier lookup) {
+        return CompletableFuture.supplyAsync(lookup::getAsBoolean).join();
+    }
+
+    private static RentalPeriod period(Long id, Long bookId, int startDay, int endDay) {
+        return new RentalPeriod(id, bookId, day(startDay), day(endDay));
+    }
+
+    private static LocalDate day(int day) {
+        return JAN_1.plusDays(day - 1);
+    }
+}
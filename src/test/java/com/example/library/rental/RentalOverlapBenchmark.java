@@ -0,0 +1,97 @@
+package com.example.library.rental;
+
+import com.example.library.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RentalOverlapBenchmark {
+
+    private static final int RENTAL_SPACING_DAYS = 10;
+
+    @Param({"1000"})
+    private int books;
+
+    @Param({"10", "100"})
+    private int rentalsPerBook;
+
+    private ConfigurableApplicationContext context;
+
+    private RentalRepository rentalRepository;
+
+    private RentalIntervalIndex rentalIntervalIndex;
+
+    private long[] bookIds;
+
+    private LocalDate origin;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start("overlap-benchmark", "--library.rental.overlap-index.enabled=true");
+        rentalRepository = context.getBean(RentalRepository.class);
+        rentalIntervalIndex = context.getBean(RentalIntervalIndex.class);
+        origin = LocalDate.of(2020, 1, 1);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bookIds = BenchmarkData.insert(jdbcTemplate, "books", "title, author, available", books,
+                i -> new Object[]{"Benchmark Book " + i, "Benchmark Author", true});
+        BenchmarkData.insert(jdbcTemplate, "rentals", "book_id, start_date, end_date, returned, version",
+                books * rentalsPerBook, i -> {
+                    LocalDate start = origin.plusDays((long) (i % rentalsPerBook) * RENTAL_SPACING_DAYS);
+                    return new Object[]{bookIds[i / rentalsPerBook], Date.valueOf(start), Date.valueOf(start.plusDays(6)),
+                            false, 0};
+                });
+
+        rentalIntervalIndex.reload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean indexLookup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate start = randomStart(random);
+        return rentalIntervalIndex.overlaps(randomBook(random), start, start.plusDays(2));
+    }
+
+    @Benchmark
+    public boolean queryLookup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate start = randomStart(random);
+        return rentalRepository.existsByBookIdAndStartLessThanEqualAndEndGreaterThanEqual(
+                randomBook(random), start.plusDays(2), start);
+    }
+
+    private long randomBook(ThreadLocalRandom random) {
+        return bookIds[random.nextInt(bookIds.length)];
+    }
+
+    private LocalDate randomStart(ThreadLocalRandom random) {
+        return origin.plusDays(random.nextInt(rentalsPerBook * RENTAL_SPACING_DAYS));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.library.rental;
+
+import com.example.library.BenchmarkData;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.example.library.rental.model.RentalDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class RentalServiceBenchmark {
+
+    private static final int HISTORY_PER_BOOK = 20;
+
+    // New bookings walk backwards from here one day at a time, so each one ends before every earlier booking of its
+    // book and the overlap check costs the same on the first and the millionth booking of the hot book.
+    private static final LocalDate LAST_DAY = LocalDate.of(9000, 1, 1);
+
+    @Param({"10000"})
+    private int books;
+
+    @Param({"10000"})
+    private int clients;
+
+    @Param({"PESSIMISTIC", "QUEUED"})
+    private BookingMode bookingMode;
+
+    private ConfigurableApplicationContext context;
+
+    private RentalService rentalService;
+
+    private long[] bookIds;
+
+    private long[] clientIds;
+
+    private AtomicInteger[] bookings;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start("rental-service-benchmark", "--library.rental.booking-mode=" + bookingMode);
+        rentalService = context.getBean(RentalService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bookIds = BenchmarkData.insert(jdbcTemplate, "books", "title, author, available", books,
+                i -> new Object[]{"Benchmark Book " + i, "Benchmark Author " + i % 1000, true});
+        clientIds = BenchmarkData.insert(jdbcTemplate, "clients", "first_name, last_name", clients,
+                i -> new Object[]{"Benchmark", "Client " + i});
+        // A returned history of fortnightly rentals per book, the last one still out.
+        LocalDate historyStart = LocalDate.of(2020, 1, 1);
+        BenchmarkData.insert(jdbcTemplate, "rentals", "client_id, book_id, start_date, end_date, returned, version",
+                books * HISTORY_PER_BOOK, i -> {
+                    LocalDate start = historyStart.plusDays(14L * (i % HISTORY_PER_BOOK));
+                    return new Object[]{clientIds[i % clients], bookIds[i / HISTORY_PER_BOOK], Date.valueOf(start),
+                            Date.valueOf(start.plusDays(10)), i % HISTORY_PER_BOOK != HISTORY_PER_BOOK - 1, 0};
+                });
+
+        bookings = new AtomicInteger[books];
+        for (int i = 0; i < books; i++) {
+            bookings[i] = new AtomicInteger();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RentalDto createRentalUncontended() {
+        return book(ThreadLocalRandom.current().nextInt(books));
+    }
+
+    @Benchmark
+    public RentalDto createRentalContended() {
+        return book(0);
+    }
+
+    private RentalDto book(int book) {
+        LocalDate day = LAST_DAY.minusDays(bookings[book].getAndIncrement());
+        long clientId = clientIds[ThreadLocalRandom.current().nextInt(clients)];
+        return rentalService.createRental(new CreateRentalCommand(clientId, bookIds[book], day, day));
+    }
+}
@@ -4,20 +4,28 @@ import com.example.library.book.BookRepository;
 import com.example.library.book.model.Book;
 import com.example.library.client.ClientRepository;
 import com.example.library.client.model.Client;
+import com.example.library.exception.BookingConflictException;
 import com.example.library.exception.ResourceNotFoundException;
+import com.example.library.pagination.CursorPage;
 import com.example.library.rental.model.CreateRentalCommand;
 import com.example.library.rental.model.Rental;
 import com.example.library.rental.model.RentalDto;
 import com.example.library.rental.model.RentalMapper;
+import com.example.library.rental.model.RentalReturnItemDto;
+import com.example.library.rental.model.RentalReturnResultDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -41,6 +49,17 @@ public class RentalServiceTest {
     @Mock
     private RentalMapper rentalMapper;
 
+    @Autowired
+    private RentalProperties rentalProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void teardown() {
+        rentalProperties.setBookingMode(BookingMode.PESSIMISTIC);
+    }
+
     @Test
     void testCreateRental() {
         CreateRentalCommand createRentalCommand = new CreateRentalCommand();
@@ -173,76 +192,65 @@ public class RentalServiceTest {
 
     @Test
     void testReturnRental() {
-        Client client = new Client();
-        client.setId(1L);
+        RentalDto rental = new RentalDto(1L, 1L, 1L, LocalDate.now(), LocalDate.now().plusDays(7), false, BigDecimal.ZERO);
 
-        Book book = new Book();
-        book.setId(1L);
+        Mockito.when(rentalRepository.findAllDtosByIdForWrite(List.of(1L))).thenReturn(List.of(rental));
+        Mockito.when(rentalRepository.markReturned(List.of(1L))).thenReturn(1);
 
-        Rental rental = new Rental();
-        rental.setId(1L);
-        rental.setReturned(false);
-        rental.setClient(client);
-        rental.setBook(book);
+        RentalDto rentalDto = rentalService.returnRental(1L);
 
-        Rental returnedRental = new Rental();
-        returnedRental.setId(1L);
-        returnedRental.setReturned(true);
-        returnedRental.setClient(client);
-        returnedRental.setBook(book);
+        Mockito.verify(rentalRepository, Mockito.times(1)).markReturned(List.of(1L));
+        Mockito.verify(rentalRepository, Mockito.never()).save(Mockito.any(Rental.class));
 
-        Mockito.when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
+        Assertions.assertEquals(rental.getId(), rentalDto.getId());
+        Assertions.assertTrue(rentalDto.isReturned());
+    }
 
-        ArgumentCaptor<Rental> rentalCaptor = ArgumentCaptor.forClass(Rental.class);
-        Mockito.when(rentalRepository.save(rentalCaptor.capture())).thenReturn(returnedRental);
+    @Test
+    void testReturnRentalsSkipsAlreadyReturnedRentals() {
+        RentalDto open = new RentalDto(1L, 1L, 1L, LocalDate.now(), LocalDate.now().plusDays(7), false, BigDecimal.ZERO);
+        RentalDto returned = new RentalDto(2L, 1L, 2L, LocalDate.now(), LocalDate.now().plusDays(7), true, BigDecimal.ZERO);
 
-        RentalDto rentalDto = rentalService.returnRental(1L);
+        Mockito.when(rentalRepository.findAllDtosByIdForWrite(List.of(1L, 2L, 3L))).thenReturn(List.of(open, returned));
 
-        Mockito.verify(rentalRepository, Mockito.times(1)).findById(1L);
+        RentalReturnResultDto result = rentalService.returnRentals(List.of(1L, 2L, 3L, 1L));
 
-        Mockito.verify(rentalRepository, Mockito.times(1)).save(Mockito.any(Rental.class));
+        Mockito.verify(rentalRepository, Mockito.times(1)).markReturned(List.of(1L));
+        Assertions.assertEquals(1, result.getReturned());
+        Assertions.assertEquals(1, result.getAlreadyReturned());
+        Assertions.assertEquals(1, result.getNotFound());
+        Assertions.assertEquals(List.of(1L, 2L, 3L), result.getItems().stream().map(RentalReturnItemDto::getId).toList());
+    }
 
-        Rental capturedRental = rentalCaptor.getValue();
-        Assertions.assertTrue(capturedRental.isReturned());
+    @Test
+    void testReturnRentalThrowsWhenRentalDoesNotExist() {
+        Mockito.when(rentalRepository.findAllDtosByIdForWrite(List.of(1L))).thenReturn(List.of());
 
-        Assertions.assertEquals(returnedRental.getId(), rentalDto.getId());
-        Assertions.assertEquals(returnedRental.isReturned(), rentalDto.isReturned());
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> rentalService.returnRental(1L));
+        Mockito.verify(rentalRepository, Mockito.never()).markReturned(Mockito.any());
     }
 
-
     @Test
     void testGetClientRentals() {
-        Client client = new Client();
-        client.setId(1L);
+        List<RentalDto> rentals = new ArrayList<>();
+        rentals.add(new RentalDto(2L, 1L, 1L, LocalDate.now(), LocalDate.now().plusDays(1), true, BigDecimal.ZERO));
+        rentals.add(new RentalDto(1L, 1L, 1L, LocalDate.now().minusDays(5), LocalDate.now().minusDays(1), false, BigDecimal.ZERO));
 
-        Book book = new Book();
-        book.setId(1L);
+        Mockito.when(rentalRepository.findClientHistory(Mockito.eq(1L), Mockito.isNull(), Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.eq(Long.MAX_VALUE), Mockito.any())).thenReturn(rentals);
 
-        List<Rental> rentals = new ArrayList<>();
-        Rental rental1 = new Rental();
-        rental1.setId(1L);
-        rental1.setClient(client);
-        rental1.setBook(book);
-        rental1.setReturned(false);
-        rentals.add(rental1);
-        Rental rental2 = new Rental();
-        rental2.setId(2L);
-        rental2.setClient(client);
-        rental2.setBook(book);
-        rental2.setReturned(true);
-        rentals.add(rental2);
-
-        Mockito.when(rentalRepository.findByClientId(1L)).thenReturn(rentals);
-
-        List<RentalDto> rentalDtos = rentalService.getClientRentals(1L);
-
-        Mockito.verify(rentalRepository, Mockito.times(1)).findByClientId(1L);
-
-        Assertions.assertEquals(rentals.size(), rentalDtos.size());
-        Assertions.assertEquals(rentals.get(0).getId(), rentalDtos.get(0).getId());
-        Assertions.assertEquals(rentals.get(0).isReturned(), rentalDtos.get(0).isReturned());
-        Assertions.assertEquals(rentals.get(1).getId(), rentalDtos.get(1).getId());
-        Assertions.assertEquals(rentals.get(1).isReturned(), rentalDtos.get(1).isReturned());
+        CursorPage<RentalDto> page = rentalService.getClientRentals(1L, null, null, null, null, 10);
+
+        Mockito.verify(rentalRepository, Mockito.times(1)).findClientHistory(Mockito.eq(1L), Mockito.isNull(),
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.eq(Long.MAX_VALUE), Mockito.eq(PageRequest.of(0, 11)));
+        Mockito.verify(rentalRepository, Mockito.never()).findByClientId(Mockito.any());
+
+        Assertions.assertEquals(rentals.size(), page.getContent().size());
+        Assertions.assertFalse(page.isHasNext());
+        Assertions.assertEquals(rentals.get(0).getId(), page.getContent().get(0).getId());
+        Assertions.assertEquals(rentals.get(0).isReturned(), page.getContent().get(0).isReturned());
+        Assertions.assertEquals(rentals.get(1).getId(), page.getContent().get(1).getId());
+        Assertions.assertEquals(rentals.get(1).isReturned(), page.getContent().get(1).isReturned());
     }
 
     @Test
@@ -343,6 +351,60 @@ public class RentalServiceTest {
     }
 
 
+    @Test
+    void testCreateRental_whenOptimisticConflictIsTransient_thenRetries() {
+        rentalProperties.setBookingMode(BookingMode.OPTIMISTIC);
+
+        Client client = new Client();
+        client.setId(1L);
+
+        Book book = new Book();
+        book.setId(1L);
+        book.setAvailable(true);
+
+        Rental savedRental = new Rental();
+        savedRental.setId(1L);
+        savedRental.setClient(client);
+        savedRental.setBook(book);
+
+        Mockito.when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        Mockito.when(bookRepository.findByIdForOptimisticWrite(1L)).thenReturn(Optional.of(book));
+        Mockito.when(rentalRepository.save(Mockito.any(Rental.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L))
+                .thenReturn(savedRental);
+        double retriesBefore = meterRegistry.counter("library.rental.booking.retries").count();
+
+        RentalDto rentalDto = rentalService.createRental(
+                new CreateRentalCommand(1L, 1L, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 10)));
+
+        Assertions.assertEquals(1L, rentalDto.getId());
+        Assertions.assertEquals(retriesBefore + 1, meterRegistry.counter("library.rental.booking.retries").count());
+        Mockito.verify(bookRepository, Mockito.never()).findByIdForWrite(Mockito.anyLong());
+    }
+
+    @Test
+    void testCreateRental_whenOptimisticConflictPersists_thenThrowsConflict() {
+        rentalProperties.setBookingMode(BookingMode.OPTIMISTIC);
+        setupDefaultRentalCreationMocks();
+
+        Book book = new Book();
+        book.setId(1L);
+        book.setAvailable(true);
+
+        Mockito.when(bookRepository.findByIdForOptimisticWrite(1L)).thenReturn(Optional.of(book));
+        Mockito.when(rentalRepository.save(Mockito.any(Rental.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+        double conflictsBefore = meterRegistry.counter("library.rental.booking.conflicts").count();
+
+        Assertions.assertThrows(BookingConflictException.class, () -> rentalService.createRental(
+                new CreateRentalCommand(1L, 1L, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 10))));
+
+        Mockito.verify(rentalRepository, Mockito.times(rentalProperties.getOptimistic().getMaxAttempts()))
+                .save(Mockito.any(Rental.class));
+        Assertions.assertEquals(conflictsBefore + 1, meterRegistry.counter("library.rental.booking.conflicts").count());
+    }
+
+
     private void setupDefaultRentalCreationMocks() {
         Client client = new Client();
         client.setId(1L);
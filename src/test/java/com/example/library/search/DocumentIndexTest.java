@@ -0,0 +1,83 @@
+package com.example.library.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentIndexTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
+    private DocumentIndex<String, TreeMap<String, RoaringBitmap>, Doc> index;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new DocumentIndex<>(TreeMap::new, key -> 2L * key.length());
+        index.registerGauges(meterRegistry, "test.search", "keys");
+        index.reload(transactionManager, () -> Stream.of(
+                new Doc(1, List.of("red", "apple"), false),
+                new Doc(2, List.of("green", "apple"), false)), doc -> doc);
+    }
+
+    @Test
+    public void testReloadPostsEveryDocumentUnderItsKeys() {
+        assertArrayEquals(new int[]{1, 2}, index.read(() -> index.postings().get("apple").toArray()));
+        assertEquals(Set.of("apple", "green", "red"), index.read(() -> index.postings().keySet()));
+        assertEquals(3, meterRegistry.get("test.search.keys").gauge().value());
+        assertEquals(2, meterRegistry.get("test.search.documents").gauge().value());
+        assertTrue(meterRegistry.get("test.search.memory").gauge().value() > 0);
+    }
+
+    @Test
+    public void testPutReplacesKeysAndRemoveDropsEmptyPostings() {
+        index.put(new Doc(1, List.of("yellow", "pear"), false));
+        index.remove(2);
+
+        assertEquals(Set.of("pear", "yellow"), index.read(() -> index.postings().keySet()));
+        assertEquals(Set.of(1L), index.read(() -> index.documents().keySet()));
+    }
+
+    @Test
+    public void testUpdateReplacesTheDocumentButKeepsItsPostings() {
+        index.update(2, doc -> new Doc(doc.id(), doc.keys(), true));
+        index.update(3, doc -> new Doc(doc.id(), doc.keys(), true));
+
+        assertTrue(index.read(() -> index.documents().get(2L).flagged()));
+        assertArrayEquals(new int[]{2}, index.read(() -> index.postings().get("green").toArray()));
+        assertEquals(2, index.read(() -> index.documents().size()));
+    }
+
+    private record Doc(long id, List<String> keys, boolean flagged) implements IndexedDocument<String> {
+
+        @Override
+        public void forEachKey(Consumer<? super String> action) {
+            keys.forEach(action);
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 16;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.library.tracing;
+
+import com.example.library.book.BookRepository;
+import com.example.library.book.model.Book;
+import com.example.library.client.ClientRepository;
+import com.example.library.client.model.Client;
+import com.example.library.rental.model.CreateRentalCommand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:tracing")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class SlowRequestsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    public void testBookingTraceBreaksDownIntoPhases() throws Exception {
+        Client client = clientRepository.save(Client.builder().firstName("Traced").lastName("Reader").build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Traced Book").author("Traced Author").available(true).build());
+        CreateRentalCommand command = new CreateRentalCommand(client.getId(), book.getId(),
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 10));
+
+        mockMvc.perform(post("/api/rentals")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+
+        String booking = "$['/api/rentals'][0]";
+        mockMvc.perform(get("/actuator/slowrequests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(booking + ".method").value("POST"))
+                .andExpect(jsonPath(booking + ".status").value(201))
+                .andExpect(jsonPath(booking + ".spans[*].phase", hasItem("SERIALIZATION")))
+                .andExpect(jsonPath(booking + ".spans[0].name").value("RentalController.createRental"))
+                .andExpect(jsonPath(booking + ".spans[0].children[0].name").value("RentalService.createRental"))
+                .andExpect(jsonPath(booking + ".spans[0].children[0].children[*].name",
+                        hasItem("BookRepository.findByIdForWrite")));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.library.tracing;
+
+import com.example.library.tracing.model.RequestTraceDto;
+import com.example.library.tracing.model.SpanDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TraceRecorderTest {
+
+    @Test
+    public void testFinishedRequestKeepsItsSpanTree() {
+        TraceRecorder traceRecorder = recorder(3, 16);
+
+        traceRecorder.begin();
+        int controller = traceRecorder.enter(Phase.CONTROLLER, TraceRecorderTest.class, "handle");
+        int service = traceRecorder.enter(Phase.SERVICE, TraceRecorderTest.class, "serve");
+        traceRecorder.exit(traceRecorder.enter(Phase.REPOSITORY, TraceRecorderTest.class, "load"));
+        traceRecorder.exit(service);
+        traceRecorder.exit(controller);
+        traceRecorder.exit(traceRecorder.enter(Phase.SERIALIZATION, String.class, "write"));
+        traceRecorder.finish("GET", "/api/things", 200);
+
+        List<RequestTraceDto> traces = traceRecorder.slowestRequests().get("/api/things");
+        assertEquals(1, traces.size());
+        List<SpanDto> roots = traces.get(0).getSpans();
+        assertEquals(2, roots.size());
+        assertEquals("TraceRecorderTest.handle", roots.get(0).getName());
+        assertEquals(Phase.SERIALIZATION, roots.get(1).getPhase());
+        SpanDto serviceSpan = roots.get(0).getChildren().get(0);
+        assertEquals(Phase.SERVICE, serviceSpan.getPhase());
+        assertEquals("TraceRecorderTest.load", serviceSpan.getChildren().get(0).getName());
+    }
+
+    @Test
+    public void testOnlyTheSlowestRequestsPerRouteAreKept() throws InterruptedException {
+        TraceRecorder traceRecorder = recorder(2, 16);
+
+        for (int millis : new int[]{1, 5, 3, 0}) {
+            traceRecorder.begin();
+            TimeUnit.MILLISECONDS.sleep(millis);
+            traceRecorder.finish("GET", "/api/things", 200);
+        }
+
+        List<RequestTraceDto> traces = traceRecorder.slowestRequests().get("/api/things");
+        assertEquals(2, traces.size());
+        assertTrue(traces.get(0).getDurationMicros() >= TimeUnit.MILLISECONDS.toMicros(5));
+        assertTrue(traces.get(1).getDurationMicros() >= TimeUnit.MILLISECONDS.toMicros(3));
+    }
+
+    @Test
+    public void testSpansBeyondTheBufferAreCountedAsDropped() {
+        TraceRecorder traceRecorder = recorder(1, 2);
+
+        traceRecorder.begin();
+        for (int i = 0; i < 5; i++) {
+            traceRecorder.exit(traceRecorder.enter(Phase.REPOSITORY, TraceRecorderTest.class, "load"));
+        }
+        traceRecorder.finish("GET", "/api/things", 200);
+
+        RequestTraceDto trace = traceRecorder.slowestRequests().get("/api/things").get(0);
+        assertEquals(2, trace.getSpans().size());
+        assertEquals(3, trace.getDroppedSpans());
+    }
+
+    @Test
+    public void testSpansOutsideARequestAreIgnored() {
+        TraceRecorder traceRecorder = recorder(1, 2);
+
+        assertEquals(-1, traceRecorder.enter(Phase.SERVICE, TraceRecorderTest.class, "background"));
+        assertTrue(traceRecorder.slowestRequests().isEmpty());
+    }
+
+    private static TraceRecorder recorder(int slowestPerEndpoint, int maxSpans) {
+        TracingProperties tracingProperties = new TracingProperties();
+        tracingProperties.setSlowestPerEndpoint(slowestPerEndpoint);
+        tracingProperties.setMaxSpans(maxSpans);
+        return new TraceRecorder(tracingProperties);
+    }
+}